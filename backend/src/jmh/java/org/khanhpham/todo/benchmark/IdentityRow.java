@@ -0,0 +1,33 @@
+package org.khanhpham.todo.benchmark;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Benchmark row keyed the way tasks were before time-ordered IDs: the database assigns the ID, so every
+ * insert is sent on its own to read the key back.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "benchmark_identity_rows")
+public class IdentityRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    public IdentityRow(String title) {
+        this.title = title;
+    }
+}
@@ -0,0 +1,86 @@
+package org.khanhpham.todo.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.khanhpham.todo.security.JwtTokenProvider;
+import org.khanhpham.todo.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done by the authentication filter for one request carrying a valid access token.
+ * <p>
+ * {@link #perCallKeysTwoParses()} repeats what the filter did before: derive the key from the secret for
+ * each call, then parse the token once to validate it and again to read its subject.
+ * {@link #uncached()} is a token seen for the first time, verified in one parse with the precomputed key,
+ * and {@link #cached()} a token answered from the {@link VerifiedTokenCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "058e1e52e9fa58c7caefde06e32b7d92aa760e5abda0b2261d317decf1e1c96b";
+    private static final String REFRESH_SECRET = "6a8c865a31928d682f0f663e471dffb5b9253ac2ecb5cd1841313436b6bac7ed";
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingProvider = provider(10_000);
+        uncachedProvider = provider(0);
+        token = cachingProvider.generateAccessToken(new UsernamePasswordAuthenticationToken(
+                new User("benchmark@khanhpham.com", "", List.of()), null, List.of()));
+    }
+
+    @Benchmark
+    public String perCallKeysTwoParses() {
+        SecretKey validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Jwts.parser().verifyWith(validateKey).build().parseSignedClaims(token);
+        SecretKey identityKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(identityKey).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String uncached() {
+        return uncachedProvider.verifyAccessToken(token);
+    }
+
+    @Benchmark
+    public String cached() {
+        return cachingProvider.verifyAccessToken(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String cachedContended() {
+        return cachingProvider.verifyAccessToken(token);
+    }
+
+    private static JwtTokenProvider provider(int cacheEntries) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(new SimpleMeterRegistry(), cacheEntries);
+        return new JwtTokenProvider(SECRET, REFRESH_SECRET, HOUR_MILLIS, 14 * 24 * HOUR_MILLIS, cache);
+    }
+}
@@ -0,0 +1,79 @@
+package org.khanhpham.todo.benchmark;
+
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.mapper.TaskMapper;
+import org.khanhpham.todo.mapper.TaskMapperImpl;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.PropertyMap;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one task entity into its DTO: the generated {@link TaskMapperImpl} against ModelMapper
+ * configured as the removed {@code ModelMapperConfig} did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+    private ModelMapper modelMapper;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT);
+        modelMapper.addMappings(new PropertyMap<Task, TaskDTO>() {
+            @Override
+            protected void configure() {
+                map().setCreatedDate(String.valueOf(source.getCreatedDate()));
+                map().setUpdatedDate(String.valueOf(source.getUpdatedDate()));
+            }
+        });
+
+        User user = new User();
+        user.setId(42L);
+        task = new Task();
+        task.setId(7_000_000_000L);
+        task.setTitle("Write the quarterly report");
+        task.setDescription("Collect the numbers from every team and draft the summary");
+        task.setDate(LocalDate.of(2026, 3, 14));
+        task.setTime(LocalTime.of(9, 30));
+        task.setImportant(true);
+        task.setUser(user);
+        task.setVersion(3);
+        task.setCreatedDate(LocalDateTime.of(2026, 3, 1, 8, 0));
+        task.setUpdatedDate(LocalDateTime.of(2026, 3, 2, 17, 45));
+    }
+
+    @Benchmark
+    public TaskDTO modelMapper() {
+        return modelMapper.map(task, TaskDTO.class);
+    }
+
+    @Benchmark
+    public TaskDTO mapStruct() {
+        return taskMapper.toDto(task);
+    }
+}
@@ -0,0 +1,91 @@
+package org.khanhpham.todo.benchmark;
+
+import org.khanhpham.todo.ToDoApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Rows inserted per second by one {@code saveAll} of {@value #ROWS} rows in a transaction, with
+ * database-assigned IDs against {@link org.khanhpham.todo.id.TimeOrderedId}, under the application's JDBC
+ * batch settings.
+ * <p>
+ * Runs on the in-memory H2 database of the {@code test} profile. To measure against MySQL, override the
+ * connection and dialect in the forked JVM, e.g.
+ * {@code -Djmh.args="SaveAllBenchmark -jvmArgsAppend -Dspring.datasource.url=jdbc:mysql://localhost:3306/todo_bench
+ * -jvmArgsAppend -Dspring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"} plus the user and password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(SaveAllBenchmark.ROWS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaveAllBenchmark {
+    static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private IdentityRowRepository identityRows;
+    private TimeOrderedRowRepository timeOrderedRows;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ToDoApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.jmx.enabled=false", "--spring.devtools.restart.enabled=false");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        identityRows = context.getBean(IdentityRowRepository.class);
+        timeOrderedRows = context.getBean(TimeOrderedRowRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        identityRows.deleteAllInBatch();
+        timeOrderedRows.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void identity() {
+        List<IdentityRow> rows = rows(IdentityRow::new);
+        transactionTemplate.executeWithoutResult(status -> identityRows.saveAll(rows));
+    }
+
+    @Benchmark
+    public void timeOrdered() {
+        List<TimeOrderedRow> rows = rows(TimeOrderedRow::new);
+        transactionTemplate.executeWithoutResult(status -> timeOrderedRows.saveAll(rows));
+    }
+
+    private static <T> List<T> rows(Function<String, T> factory) {
+        List<T> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(factory.apply("row " + i));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package org.khanhpham.todo.benchmark;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+/**
+ * Benchmark row keyed like tasks: the application assigns the ID, so inserts go out in JDBC batches.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "benchmark_time_ordered_rows")
+public class TimeOrderedRow {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    public TimeOrderedRow(String title) {
+        this.title = title;
+    }
+}
@@ -0,0 +1,6 @@
+package org.khanhpham.todo.benchmark;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TimeOrderedRowRepository extends JpaRepository<TimeOrderedRow, Long> {
+}
@@ -0,0 +1,170 @@
+package org.khanhpham.todo.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of already-serialized JSON responses of the task list endpoints, keyed by
+ * {@code (userId, endpoint, filter)}.
+ * <p>
+ * Entries are evicted least-recently-used once the total size in bytes or the number of entries goes over
+ * the configured limits, and expire after a fixed TTL. Each entry remembers the {@link TaskSetVersions}
+ * version it was built from: a committed mutation of the user's tasks drops that user's entries, and a
+ * response that was being built while the mutation committed is never stored.
+ */
+@Component
+public class TaskResponseCache {
+    private final ObjectMapper objectMapper;
+    private final TaskSetVersions taskSetVersions;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Guarded by "this"
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Key>> keysByUser = new HashMap<>();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TaskResponseCache(ObjectMapper objectMapper, TaskSetVersions taskSetVersions, MeterRegistry meterRegistry,
+                             @Value("${app.tasks.cache.max-bytes}") long maxBytes,
+                             @Value("${app.tasks.cache.max-entries}") int maxEntries,
+                             @Value("${app.tasks.cache.ttl-seconds}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.taskSetVersions = taskSetVersions;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        FunctionCounter.builder("tasks.response.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("tasks.response.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("tasks.response.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("tasks.response.cache.entries", this, TaskResponseCache::size).register(meterRegistry);
+        Gauge.builder("tasks.response.cache.bytes", this, TaskResponseCache::bytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Returns the serialized response for the key, building and caching it on a miss.
+     *
+     * @param userId   the owner of the tasks
+     * @param endpoint the endpoint the response belongs to
+     * @param filter   a stable representation of every request parameter that shapes the response
+     * @param loader   builds the response on a miss
+     * @return the response serialized as JSON
+     */
+    public byte[] get(Long userId, String endpoint, String filter, Supplier<?> loader) {
+        Key key = new Key(userId, endpoint, filter);
+        long version = taskSetVersions.current(userId);
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == version && now - entry.createdAt() < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.body();
+            }
+        }
+
+        misses.incrementAndGet();
+        byte[] body = serialize(loader.get());
+        synchronized (this) {
+            // A mutation while the response was being built makes it stale before it is even stored
+            if (taskSetVersions.current(userId) == version) {
+                put(key, new Entry(body, version, now));
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Drops every cached response of the user.
+     *
+     * @param userId the owner of the tasks
+     */
+    public synchronized void invalidate(Long userId) {
+        Set<Key> keys = keysByUser.remove(userId);
+        if (keys != null) {
+            for (Key key : keys) {
+                Entry removed = entries.remove(key);
+                if (removed != null) {
+                    totalBytes -= removed.body().length;
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void put(Key key, Entry entry) {
+        if (entry.body().length > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.body().length;
+        }
+        totalBytes += entry.body().length;
+        keysByUser.computeIfAbsent(key.userId(), id -> new HashSet<>()).add(key);
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while ((totalBytes > maxBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+            Map.Entry<Key, Entry> evicted = eldest.next();
+            eldest.remove();
+            totalBytes -= evicted.getValue().body().length;
+            Set<Key> userKeys = keysByUser.get(evicted.getKey().userId());
+            if (userKeys != null) {
+                userKeys.remove(evicted.getKey());
+                if (userKeys.isEmpty()) {
+                    keysByUser.remove(evicted.getKey().userId());
+                }
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize task response", e);
+        }
+    }
+
+    private record Key(Long userId, String endpoint, String filter) {
+    }
+
+    private record Entry(byte[] body, long version, long createdAt) {
+    }
+}
@@ -0,0 +1,61 @@
+package org.khanhpham.todo.cache;
+
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a monotonically increasing version of every user's task set, bumped once each task mutation
+ * commits, so a response read before the commit can never be tagged with the new version.
+ * Anything derived from a user's tasks can remember the version it was built from and later tell
+ * whether it is still current without touching the database.
+ */
+@Component
+public class TaskSetVersions {
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Versions restart from zero with the process, so tags from a previous run must never match
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Returns the current version of the user's task set.
+     *
+     * @param userId the owner of the tasks
+     * @return the current version, {@code 0} if the tasks have not changed since startup
+     */
+    public long current(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Returns a weak entity tag identifying the current version of the user's task set.
+     * Anything rendered from the task set after this call is at least as new as the tag.
+     *
+     * @param userId the owner of the tasks
+     * @return the weak ETag, quotes included
+     */
+    public String etag(Long userId) {
+        return "W/\"" + epoch + "-" + userId + "-" + current(userId) + "\"";
+    }
+
+    /**
+     * Moves the user's task set to a new version.
+     *
+     * @param userId the owner of the tasks
+     * @return the new version
+     */
+    public long bump(Long userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        bump(event.userId());
+    }
+}
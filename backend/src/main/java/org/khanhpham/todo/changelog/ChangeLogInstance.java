@@ -0,0 +1,20 @@
+package org.khanhpham.todo.changelog;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+/**
+ * Identifies this running application context in the change log, so the tailer skips the entries it
+ * wrote itself and replays all others. It is drawn at random on every start instead of being taken from
+ * the configured {@code app.id.node-id}, so two nodes started with the same node ID by mistake still see
+ * each other's changes, and a restarted node never mistakes the entries of its previous run for its own.
+ */
+@Component
+public class ChangeLogInstance {
+    private final long id = new SecureRandom().nextLong();
+
+    public long id() {
+        return id;
+    }
+}
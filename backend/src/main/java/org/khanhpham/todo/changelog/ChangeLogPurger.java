@@ -0,0 +1,38 @@
+package org.khanhpham.todo.changelog;
+
+import org.khanhpham.todo.repository.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes change log entries older than the retention. Every node has replayed them long before, so
+ * the table only ever holds the last few minutes of changes.
+ */
+@Component
+public class ChangeLogPurger {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogPurger.class);
+
+    private final ChangeLogRepository changeLogRepository;
+
+    @Value("${app.changelog.retention-minutes}")
+    private long retentionMinutes;
+
+    public ChangeLogPurger(ChangeLogRepository changeLogRepository) {
+        this.changeLogRepository = changeLogRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.changelog.purge-interval-ms}")
+    @Transactional
+    public void purge() {
+        int purged = changeLogRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (purged > 0) {
+            logger.info("Purged {} change log entries", purged);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.khanhpham.todo.changelog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.khanhpham.todo.common.ChangeLogKind;
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.entity.ChangeLogEntry;
+import org.khanhpham.todo.entity.TaskTag;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.event.UserChangedEvent;
+import org.khanhpham.todo.mapper.TaskMapper;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.repository.ChangeLogRepository;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.TaskTagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the {@code change_log} table and replays the changes made by other nodes as local
+ * {@link TaskChangedEvent}s and {@link UserChangedEvent}s flagged as remote, so every cache and
+ * in-memory index of this node catches up without a message broker.
+ * <p>
+ * The node remembers a high-water mark below which every entry has been seen. Each poll reads the
+ * entries above it in ID order. An ID missing below a later entry belongs to a transaction that is
+ * still committing, so the mark waits for it, and only skips it once it has been missing longer than
+ * the gap timeout, which must exceed the longest task transaction. Entries seen above a gap are
+ * remembered and not replayed twice.
+ * <p>
+ * Remote entries carry no task data: the tasks of a batch are read back in one query, and a task that
+ * is gone is replayed as deleted. Entries are told apart from this node's own by the random
+ * {@link ChangeLogInstance} ID rather than the configured node ID. All state is per application context,
+ * so several contexts in one JVM behave like separate nodes.
+ */
+@Component
+public class ChangeLogTailer {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogTailer.class);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final TaskRepository taskRepository;
+    private final TaskTagRepository taskTagRepository;
+    private final TaskMapper taskMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long instanceId;
+    private final Timer lag;
+    private final Counter applied;
+    private final Counter skippedGaps;
+
+    private final NavigableSet<Long> seenAboveMark = new TreeSet<>();
+    private long highWaterMark;
+    private long gapSince;
+
+    @Value("${app.changelog.batch-size}")
+    private int batchSize;
+
+    @Value("${app.changelog.gap-timeout-ms}")
+    private long gapTimeoutMillis;
+
+    public ChangeLogTailer(ChangeLogRepository changeLogRepository, TaskRepository taskRepository,
+                           TaskTagRepository taskTagRepository, TaskMapper taskMapper,
+                           ApplicationEventPublisher eventPublisher, ChangeLogInstance instance,
+                           MeterRegistry meterRegistry) {
+        this.changeLogRepository = changeLogRepository;
+        this.taskRepository = taskRepository;
+        this.taskTagRepository = taskTagRepository;
+        this.taskMapper = taskMapper;
+        this.eventPublisher = eventPublisher;
+        this.instanceId = instance.id();
+        this.lag = Timer.builder("changelog.propagation.lag")
+                .description("Time from the commit of a change on another node to its replay on this one")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.applied = Counter.builder("changelog.entries.applied").register(meterRegistry);
+        this.skippedGaps = Counter.builder("changelog.gaps.skipped").register(meterRegistry);
+    }
+
+    /**
+     * Starts following the log at its current end, before the indexes are loaded from the tables and
+     * before any request is served: caches start empty, so earlier entries are of no use, and every
+     * later one is replayed.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        highWaterMark = changeLogRepository.findMaxId();
+    }
+
+    @Scheduled(fixedDelayString = "${app.changelog.poll-interval-ms}")
+    public synchronized void poll() {
+        List<ChangeLogEntry> fresh = changeLogRepository.findAfter(highWaterMark, PageRequest.of(0, batchSize)).stream()
+                .filter(entry -> !seenAboveMark.contains(entry.getId()))
+                .toList();
+        List<ChangeLogEntry> remote = fresh.stream().filter(entry -> entry.getInstanceId() != instanceId).toList();
+        if (!remote.isEmpty()) {
+            replay(remote);
+        }
+        // Only once replayed, so a failed replay is retried by the next poll
+        fresh.forEach(entry -> seenAboveMark.add(entry.getId()));
+        advance();
+    }
+
+    /**
+     * Moves the high-water mark over the entries seen contiguously above it, waiting for missing IDs
+     * up to the gap timeout.
+     */
+    private void advance() {
+        while (!seenAboveMark.isEmpty()) {
+            if (seenAboveMark.first() == highWaterMark + 1) {
+                highWaterMark = seenAboveMark.pollFirst();
+                gapSince = 0;
+                continue;
+            }
+            long now = System.nanoTime();
+            if (gapSince == 0) {
+                gapSince = now;
+                return;
+            }
+            if (now - gapSince < TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis)) {
+                return;
+            }
+            logger.warn("Skipping change log entries {} to {}, missing for {} ms", highWaterMark + 1,
+                    seenAboveMark.first() - 1, gapTimeoutMillis);
+            skippedGaps.increment();
+            highWaterMark = seenAboveMark.first() - 1;
+        }
+    }
+
+    private void replay(List<ChangeLogEntry> entries) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ChangeLogEntry> taskEntries = new LinkedHashMap<>();
+        Set<Long> userIds = new TreeSet<>();
+        for (ChangeLogEntry entry : entries) {
+            lag.record(Duration.between(entry.getCreatedDate(), now).abs());
+            if (entry.getKind() == ChangeLogKind.TASK) {
+                taskEntries.put(entry.getTaskId(), entry);
+            } else {
+                userIds.add(entry.getUserId());
+            }
+        }
+
+        Map<Long, TaskDTO> tasks = findTasks(taskEntries.keySet());
+        for (ChangeLogEntry entry : taskEntries.values()) {
+            TaskDTO after = tasks.get(entry.getTaskId());
+            eventPublisher.publishEvent(new TaskChangedEvent(typeOf(entry, after), entry.getUserId(), entry.getTaskId(),
+                    null, after, true));
+        }
+        userIds.forEach(userId -> eventPublisher.publishEvent(new UserChangedEvent(userId, true)));
+        applied.increment(entries.size());
+    }
+
+    /**
+     * Reads the current state of the tasks, with their tags, leaving out those deleted or in the trash.
+     */
+    private Map<Long, TaskDTO> findTasks(Set<Long> taskIds) {
+        Map<Long, TaskDTO> tasks = new HashMap<>();
+        if (taskIds.isEmpty()) {
+            return tasks;
+        }
+        taskRepository.findProjectionsByIdIn(taskIds).forEach(task -> {
+            TaskDTO taskDTO = taskMapper.toDto(task);
+            taskDTO.setTags(new TreeSet<>());
+            tasks.put(taskDTO.getId(), taskDTO);
+        });
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+        for (TaskTag tag : taskTagRepository.findByTaskIdIn(tasks.keySet())) {
+            tasks.get(tag.getTaskId()).getTags().add(tag.getName());
+        }
+        return tasks;
+    }
+
+    /**
+     * The logged kind of change, corrected for what happened to the task since it was logged.
+     */
+    private static TaskChangeType typeOf(ChangeLogEntry entry, TaskDTO after) {
+        if (after == null) {
+            return TaskChangeType.DELETED;
+        }
+        return entry.getType() == TaskChangeType.DELETED ? TaskChangeType.RESTORED : entry.getType();
+    }
+}
@@ -0,0 +1,93 @@
+package org.khanhpham.todo.changelog;
+
+import org.khanhpham.todo.common.ChangeLogKind;
+import org.khanhpham.todo.entity.ChangeLogEntry;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.event.UserChangedEvent;
+import org.khanhpham.todo.repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends the local task and user changes to the {@code change_log} table. The changes of a
+ * transaction are collected and written just before it commits, one entry per task or user however
+ * often it changed, so the entries commit or roll back together with the change and their IDs are
+ * allocated as late as possible.
+ */
+@Component
+public class ChangeLogWriter {
+    private final ChangeLogRepository changeLogRepository;
+    private final int nodeId;
+    private final long instanceId;
+
+    public ChangeLogWriter(ChangeLogRepository changeLogRepository, ChangeLogInstance instance,
+                           @Value("${app.id.node-id}") int nodeId) {
+        this.changeLogRepository = changeLogRepository;
+        this.nodeId = nodeId;
+        this.instanceId = instance.id();
+    }
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!event.remote()) {
+            append(new ChangeLogEntry(null, nodeId, instanceId, ChangeLogKind.TASK, event.type(), event.userId(),
+                    event.taskId(), null));
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.remote()) {
+            append(new ChangeLogEntry(null, nodeId, instanceId, ChangeLogKind.USER, null, event.userId(), null, null));
+        }
+    }
+
+    private void append(ChangeLogEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entry.setCreatedDate(LocalDateTime.now());
+            changeLogRepository.save(entry);
+            return;
+        }
+        pendingEntries().put(new Key(entry.getKind(), entry.getUserId(), entry.getTaskId()), entry);
+    }
+
+    /**
+     * Returns the entries collected in the current transaction, registering the hook that writes them
+     * before commit on first use.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Key, ChangeLogEntry> pendingEntries() {
+        Map<Key, ChangeLogEntry> pending = (Map<Key, ChangeLogEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Key, ChangeLogEntry> entries = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, entries);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                LocalDateTime now = LocalDateTime.now();
+                List<ChangeLogEntry> toSave = List.copyOf(entries.values());
+                toSave.forEach(entry -> entry.setCreatedDate(now));
+                changeLogRepository.saveAll(toSave);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(ChangeLogWriter.this);
+            }
+        });
+        return entries;
+    }
+
+    private record Key(ChangeLogKind kind, Long userId, Long taskId) {
+    }
+}
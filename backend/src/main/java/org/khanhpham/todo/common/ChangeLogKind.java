@@ -0,0 +1,6 @@
+package org.khanhpham.todo.common;
+
+public enum ChangeLogKind {
+    TASK,
+    USER
+}
@@ -0,0 +1,7 @@
+package org.khanhpham.todo.common;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,43 @@
+package org.khanhpham.todo.common;
+
+import org.khanhpham.todo.exception.CustomException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque token of the delta sync endpoint. It carries the watermark up to which the client has
+ * already seen every change; the next call returns only what changed after it.
+ *
+ * @param watermark the last instant covered by the previous sync
+ */
+public record SyncToken(LocalDateTime watermark) {
+    private static final String INVALID_TOKEN = "Invalid sync token";
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(watermark.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token the encoded token, may be {@code null} or blank when the client starts syncing
+     * @return the decoded token, or {@code null} when no token was supplied
+     * @throws CustomException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new SyncToken(LocalDateTime.parse(raw));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, INVALID_TOKEN);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.khanhpham.todo.common;
+
+public enum TaskChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESTORED,
+    STATUS_CHANGED
+}
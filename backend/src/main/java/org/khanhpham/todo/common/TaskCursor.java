@@ -0,0 +1,74 @@
+package org.khanhpham.todo.common;
+
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over the {@code (date, time, id)} ordering of a user's tasks.
+ * The cursor points at the last task of a page; the next page starts strictly after it. It records the
+ * sort order of the page, since the same position seeks in the opposite direction under the other order.
+ *
+ * @param sort the sort order of the page the cursor was issued for
+ * @param date the date of the last task returned
+ * @param time the time of the last task returned
+ * @param id   the id of the last task returned, used as the tie-breaker
+ */
+public record TaskCursor(TaskSortOrder sort, LocalDate date, LocalTime time, Long id) {
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR = "Invalid cursor";
+
+    /**
+     * Builds the cursor pointing at the given task.
+     *
+     * @param task the last task of a page
+     * @param sort the sort order of the page
+     * @return the cursor that resumes right after {@code task}
+     */
+    public static TaskCursor of(TaskDTO task, TaskSortOrder sort) {
+        return new TaskCursor(sort, task.getDate(), task.getTime(), task.getId());
+    }
+
+    /**
+     * Encodes this cursor into a URL-safe string the client passes back unchanged.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + date + SEPARATOR + time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()} for a page in the given sort order.
+     *
+     * @param cursor the encoded cursor, may be {@code null} or blank for the first page
+     * @param sort   the sort order of the requested page
+     * @return the decoded cursor, or {@code null} when no cursor was supplied
+     * @throws CustomException if the cursor is malformed or was issued for another sort order
+     */
+    public static TaskCursor decode(String cursor, TaskSortOrder sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new CustomException(HttpStatus.BAD_REQUEST, INVALID_CURSOR);
+            }
+            if (TaskSortOrder.valueOf(parts[0]) != sort) {
+                throw new CustomException(HttpStatus.BAD_REQUEST, INVALID_CURSOR + " for sort order " + sort);
+            }
+            return new TaskCursor(sort, LocalDate.parse(parts[1]), LocalTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, INVALID_CURSOR);
+        }
+    }
+}
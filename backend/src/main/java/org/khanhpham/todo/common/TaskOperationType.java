@@ -0,0 +1,11 @@
+package org.khanhpham.todo.common;
+
+/**
+ * Kind of a single operation inside a task batch.
+ */
+public enum TaskOperationType {
+    CREATE,
+    UPDATE,
+    DELETE,
+    STATUS
+}
@@ -0,0 +1,6 @@
+package org.khanhpham.todo.common;
+
+public enum TaskSortOrder {
+    DATE_ASC,
+    DATE_DESC
+}
@@ -0,0 +1,25 @@
+package org.khanhpham.todo.config;
+
+import org.khanhpham.todo.id.IdGenerator;
+import org.khanhpham.todo.id.SnowflakeIdGenerator;
+import org.khanhpham.todo.id.TimeOrderedIdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+    /**
+     * Bean definition for the generator of entity IDs. Every node writing to the same database must be
+     * started with its own {@code app.id.node-id}, otherwise two nodes could hand out the same ID.
+     *
+     * @param nodeId the ID of this node, between 0 and {@link SnowflakeIdGenerator#MAX_NODE_ID}
+     * @return the generator, also installed for entities annotated with {@code @TimeOrderedId}
+     */
+    @Bean
+    public IdGenerator idGenerator(@Value("${app.id.node-id}") long nodeId) {
+        IdGenerator idGenerator = new SnowflakeIdGenerator(nodeId);
+        TimeOrderedIdentifierGenerator.use(idGenerator);
+        return idGenerator;
+    }
+}
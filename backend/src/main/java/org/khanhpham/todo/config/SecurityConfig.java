@@ -1,5 +1,6 @@
 package org.khanhpham.todo.config;
 
+import jakarta.servlet.DispatcherType;
 import org.khanhpham.todo.security.JwtAuthenticationEntryPoint;
 import org.khanhpham.todo.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
@@ -61,6 +62,7 @@ public class SecurityConfig {
      * <ul>
      *   <li>CSRF is disabled since the application is stateless.</li>
      *   <li>CORS is enabled with default settings.</li>
+     *   <li>Async dispatches are permitted; the request was authorized before the streamed response started.</li>
      *   <li>GET requests to the "/api/v1/**" endpoints are permitted without authentication.</li>
      *   <li>Authentication is required for all other requests.</li>
      *   <li>A stateless session policy is enforced, meaning no session is created or used.</li>
@@ -75,7 +77,8 @@ public class SecurityConfig {
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable).cors(Customizer.withDefaults())
                 .authorizeHttpRequests(authorize ->
-                        authorize.requestMatchers(HttpMethod.GET, "/api/v1/**").permitAll()
+                        authorize.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers(HttpMethod.GET, "/api/v1/**").permitAll()
                                 .requestMatchers("/api/v1/auth/**").permitAll()
                                 .requestMatchers("/swagger-ui/**", "/v3/api-docs", "/swagger-ui-custom.html").permitAll()
                                 .anyRequest().authenticated()
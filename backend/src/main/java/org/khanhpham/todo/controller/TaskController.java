@@ -1,60 +1,404 @@
 package org.khanhpham.todo.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.khanhpham.todo.cache.TaskResponseCache;
+import org.khanhpham.todo.cache.TaskSetVersions;
 import org.khanhpham.todo.entity.CustomUserDetails;
+import org.khanhpham.todo.exception.CustomException;
 import org.khanhpham.todo.payload.dto.TaskDTO;
 import org.khanhpham.todo.payload.request.ChangeTaskStatusRequest;
+import org.khanhpham.todo.payload.request.SubtaskPatchRequest;
+import org.khanhpham.todo.payload.request.SubtaskRequest;
+import org.khanhpham.todo.payload.request.TaskBatchRequest;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.payload.request.TaskOccurrenceRequest;
+import org.khanhpham.todo.payload.request.TaskPatchRequest;
 import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.payload.request.TaskTagQueryRequest;
+import org.khanhpham.todo.payload.response.TaskBatchResponse;
+import org.khanhpham.todo.payload.response.TaskCalendarResponse;
+import org.khanhpham.todo.payload.response.TaskChangesResponse;
+import org.khanhpham.todo.payload.response.TaskImportProgress;
+import org.khanhpham.todo.payload.response.TaskPageResponse;
+import org.khanhpham.todo.payload.response.TaskSummaryResponse;
+import org.khanhpham.todo.payload.response.TaskTagCount;
+import org.khanhpham.todo.payload.response.TaskTagQueryResponse;
+import org.khanhpham.todo.push.TaskEventHub;
 import org.khanhpham.todo.service.TaskService;
+import org.khanhpham.todo.transfer.TaskExporter;
+import org.khanhpham.todo.transfer.TaskFileFormat;
+import org.khanhpham.todo.transfer.TaskImporter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
 @RequestMapping("${spring.data.rest.base-path}/tasks")
 public class TaskController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final TaskService taskService;
+    private final TaskResponseCache taskResponseCache;
+    private final TaskSetVersions taskSetVersions;
+    private final TaskExporter taskExporter;
+    private final TaskImporter taskImporter;
+    private final TaskEventHub taskEventHub;
+    private final ObjectMapper objectMapper;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskResponseCache taskResponseCache, TaskSetVersions taskSetVersions,
+                          TaskExporter taskExporter, TaskImporter taskImporter, TaskEventHub taskEventHub,
+                          ObjectMapper objectMapper) {
         this.taskService = taskService;
+        this.taskResponseCache = taskResponseCache;
+        this.taskSetVersions = taskSetVersions;
+        this.taskExporter = taskExporter;
+        this.taskImporter = taskImporter;
+        this.taskEventHub = taskEventHub;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Get all tasks", description = "Retrieve all tasks assigned to the authenticated user.")
+    @Operation(summary = "Get all tasks", description = "Retrieve one page of the tasks assigned to the authenticated user.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = TaskDTO.class))),
+                            schema = @Schema(implementation = TaskPageResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    @GetMapping
-    public ResponseEntity<List<TaskDTO>> getAllTasks(
-            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllTasks(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "The cursor returned with the previous page") String cursor,
+            @RequestParam(value = "size", required = false) @Parameter(description = "The maximum number of tasks in the page") Integer size) {
         Long userId = userDetails.getUserId();
-        return ResponseEntity.ok(taskService.getTasksByUserId(userId));
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] body = taskResponseCache.get(userId, "tasks", cursor + "|" + size,
+                () -> taskService.getTasksByUserId(userId, cursor, size));
+        return versioned(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Stream all tasks", description = "Stream every task of the authenticated user as newline-delimited JSON, " +
+            "one task per line, written while the rows are read from the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming tasks",
+                    content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping(produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+        return streaming(userDetails.getUserId(), new TaskFilterRequest(), true);
+    }
+
+    @Operation(summary = "Stream all tasks as a JSON array", description = "Stream every task of the authenticated user as one JSON array " +
+            "sent with chunked encoding, written while the rows are read from the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming tasks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasksAsArray(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+        return streaming(userDetails.getUserId(), new TaskFilterRequest(), false);
     }
 
-    @Operation(summary = "Get tasks by filter", description = "Retrieve tasks based on the provided filter criteria.")
+    @Operation(summary = "Get tasks by filter", description = "Retrieve one page of tasks matching every provided filter criterion.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = TaskDTO.class))),
+                            schema = @Schema(implementation = TaskPageResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter parameters")
+    })
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getTasksByFilter(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @ParameterObject @Parameter(description = "The filter criteria, all optional") TaskFilterRequest filter,
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "The cursor returned with the previous page") String cursor,
+            @RequestParam(value = "size", required = false) @Parameter(description = "The maximum number of tasks in the page") Integer size) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] body = taskResponseCache.get(userId, "tasks/filter", filter + "|" + cursor + "|" + size,
+                () -> taskService.getTasksByFilter(userId, filter, cursor, size));
+        return versioned(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Stream tasks by filter", description = "Stream every task matching the filter as newline-delimited JSON.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming tasks",
+                    content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = TaskDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid filter parameters")
     })
-    @GetMapping("/filter")
-    public ResponseEntity<List<TaskDTO>> getTasksByFilter(
+    @GetMapping(value = "/filter", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksByFilter(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @ParameterObject @Parameter(description = "The filter criteria, all optional") TaskFilterRequest filter) {
+        return streaming(userDetails.getUserId(), filter, true);
+    }
+
+    @Operation(summary = "Stream tasks by filter as a JSON array", description = "Stream every task matching the filter as one JSON array " +
+            "sent with chunked encoding.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming tasks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid filter parameters")
+    })
+    @GetMapping(value = "/filter", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksByFilterAsArray(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @ParameterObject @Parameter(description = "The filter criteria, all optional") TaskFilterRequest filter) {
+        return streaming(userDetails.getUserId(), filter, false);
+    }
+
+    @Operation(summary = "Export tasks", description = "Download every task matching the filter as CSV, a JSON array or NDJSON. " +
+            "The file is written while the rows are read from the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming the export"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter parameters or format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @ParameterObject @Parameter(description = "The filter criteria, all optional") TaskFilterRequest filter,
+            @RequestParam(value = "format", defaultValue = "csv") @Parameter(description = "csv, json or ndjson") String format) {
+        Long userId = userDetails.getUserId();
+        TaskFileFormat fileFormat = TaskFileFormat.fromName(format);
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + fileFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(outputStream -> taskExporter.export(userId, filter, fileFormat, outputStream));
+    }
+
+    @Operation(summary = "Import tasks", description = "Upload tasks as CSV with a header row, a JSON array or NDJSON. " +
+            "Rows are validated like a created task and inserted in batches; a progress report is sent as an NDJSON " +
+            "line after every batch, and the last line has done set.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming the progress of the import",
+                    content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = TaskImportProgress.class))),
+            @ApiResponse(responseCode = "415", description = "Unsupported content type")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE}, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importTasks(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) @Parameter(hidden = true) MediaType contentType,
+            @Parameter(hidden = true) InputStream inputStream) {
+        Long userId = userDetails.getUserId();
+        TaskFileFormat format = TaskFileFormat.fromMediaType(contentType);
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                taskImporter.importTasks(userId, inputStream, format, charset, progress -> {
+                    try {
+                        generator.writeObject(progress);
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(TaskFileFormat.NDJSON.getMediaType())
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    @Operation(summary = "Subscribe to task changes", description = "Open a Server-Sent Events stream of the authenticated user's " +
+            "task changes. It starts with a ready event carrying the ETag of the task set; each tasks event then holds the latest " +
+            "change of every task changed since the previous one. Browsers may pass the access token as the access_token parameter.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming task changes",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToTaskEvents(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+        return taskEventHub.subscribe(userDetails.getUserId());
+    }
+
+    @Operation(summary = "Search tasks", description = "Full-text search over the title and description of the authenticated user's tasks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched tasks",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDTO>> searchTasks(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestParam(value = "q") @Parameter(description = "The search terms; the last characters of each term may be a prefix") String query,
+            @RequestParam(value = "limit", required = false) @Parameter(description = "The maximum number of results") Integer limit) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(taskService.searchTasks(userId, query, limit));
+    }
+
+    @Operation(summary = "Query tasks by tags", description = "Find the authenticated user's tasks carrying all of some tags, " +
+            "any of others and none of a third set, optionally restricted to completed or important tasks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully queried tasks",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskTagQueryResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/tags/query")
+    public ResponseEntity<TaskTagQueryResponse> getTasksByTags(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @ParameterObject @Parameter(description = "The tags and flags to match, all optional") TaskTagQueryRequest query,
+            @RequestParam(value = "limit", required = false) @Parameter(description = "The maximum number of tasks") Integer limit) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(taskService.getTasksByTags(userId, query, limit));
+    }
+
+    @Operation(summary = "Get tags", description = "List the authenticated user's tags with the number of tasks carrying each.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved tags",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskTagCount.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match")
+    })
+    @GetMapping("/tags")
+    public ResponseEntity<List<TaskTagCount>> getTags(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(taskService.getTags(userId));
+    }
+
+    @Operation(summary = "Get agenda", description = "Retrieve the authenticated user's tasks dated from one day to another, " +
+            "both inclusive, in date and time order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the agenda",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range")
+    })
+    @GetMapping("/agenda")
+    public ResponseEntity<List<TaskDTO>> getAgenda(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestParam("from") @DateTimeFormat(pattern = "yyyy-MM-dd") @Parameter(description = "The first day, yyyy-MM-dd") LocalDate from,
+            @RequestParam("to") @DateTimeFormat(pattern = "yyyy-MM-dd") @Parameter(description = "The last day, yyyy-MM-dd") LocalDate to) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(taskService.getAgenda(userId, from, to));
+    }
+
+    @Operation(summary = "Get calendar", description = "Retrieve the number of tasks of the authenticated user on every day of a month.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the calendar",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskCalendarResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Tasks unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid month")
+    })
+    @GetMapping("/calendar")
+    public ResponseEntity<TaskCalendarResponse> getCalendar(
+            @Parameter(hidden = true) WebRequest webRequest,
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestParam("month") @DateTimeFormat(pattern = "yyyy-MM") @Parameter(description = "The month, yyyy-MM") YearMonth month) {
+        Long userId = userDetails.getUserId();
+        String etag = taskSetVersions.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(taskService.getCalendar(userId, month));
+    }
+
+    @Operation(summary = "Get task summary", description = "Retrieve the counts behind the sidebar badges: all, completed, " +
+            "important, overdue and due-today tasks of the authenticated user.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the summary",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskSummaryResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<TaskSummaryResponse> getTaskSummary(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails) {
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(taskService.getTaskSummary(userId));
+    }
+
+    @Operation(summary = "Get task changes", description = "Retrieve the tasks created, updated or deleted since a sync token. " +
+            "Call it without a token before the initial full load to obtain the first token.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved changes",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskChangesResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid sync token"),
+            @ApiResponse(responseCode = "410", description = "Sync token expired, all tasks must be reloaded")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesResponse> getTaskChanges(
             @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
-            @RequestParam(value = "filterField") @Parameter(description = "The field to filter by") String filterField,
-            @RequestParam(value = "filterValue") @Parameter(description = "The value to filter by") boolean filterValue) {
+            @RequestParam(value = "since", required = false) @Parameter(description = "The token returned by the previous call") String since) {
         Long userId = userDetails.getUserId();
-        return ResponseEntity.ok(taskService.getTasksByFilter(userId, filterField, filterValue));
+        return ResponseEntity.ok(taskService.getTaskChanges(userId, since));
     }
 
     @Operation(summary = "Create a new task", description = "Create a new task for the authenticated user.")
@@ -72,19 +416,43 @@ public class TaskController {
         return ResponseEntity.ok(taskService.createTask(userId, taskRequest));
     }
 
+    @Operation(summary = "Apply a batch of task operations", description = "Create, update, delete and change the status of " +
+            "several tasks of the authenticated user in one transaction. Each operation gets its own result.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch applied, see the result of each operation",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid batch input")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<TaskBatchResponse> executeBatch(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @Valid @RequestBody @Parameter(description = "The operations to apply, in order") TaskBatchRequest request) {
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(taskService.executeBatch(userId, request));
+    }
+
     @Operation(summary = "Get task by userId and taskId", description = "Retrieve a task by its ID for the authenticated user.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved task",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Task unchanged since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Task not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<TaskDTO> getTaskByUserIdAndTaskId(
+            @Parameter(hidden = true) WebRequest webRequest,
             @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
             @PathVariable(value = "id") @Parameter(description = "The task ID") Long id) {
         Long userId = userDetails.getUserId();
-        return ResponseEntity.ok(taskService.getTaskByUserIdAndTaskId(userId, id));
+        // Tagged with the task's own version, the same strong ETag PUT and PATCH take in If-Match
+        TaskDTO task = taskService.getTaskByUserIdAndTaskId(userId, id);
+        String etag = taskETag(task);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return versioned(etag).body(task);
     }
 
     @Operation(summary = "Update task", description = "Update an existing task for the authenticated user.")
@@ -93,24 +461,173 @@ public class TaskController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = TaskDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid task input"),
-            @ApiResponse(responseCode = "404", description = "Task not found")
+            @ApiResponse(responseCode = "404", description = "Task not found"),
+            @ApiResponse(responseCode = "409", description = "Task changed concurrently"),
+            @ApiResponse(responseCode = "412", description = "Task changed since the version in If-Match, or If-Match is weak")
     })
     @PutMapping("/{id}")
     public ResponseEntity<TaskDTO> updateTask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
             @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) @Parameter(description = "The task version last read") String ifMatch,
             @Valid @RequestBody @Parameter(description = "The updated task data") TaskRequest taskRequest) {
-        return ResponseEntity.ok(taskService.updateTask(id, taskRequest));
+        Long userId = userDetails.getUserId();
+        return taskVersioned(taskService.updateTask(userId, id, taskRequest, parseVersion(ifMatch)));
+    }
+
+    @Operation(summary = "Patch task", description = "Change only the fields present in the request on a task of the " +
+            "authenticated user. Send the task version in If-Match to reject the change if someone else changed the task first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully patched task",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid task input or If-Match header"),
+            @ApiResponse(responseCode = "404", description = "Task not found"),
+            @ApiResponse(responseCode = "409", description = "Task changed concurrently"),
+            @ApiResponse(responseCode = "412", description = "Task changed since the version in If-Match, or If-Match is weak")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<TaskDTO> patchTask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) @Parameter(description = "The task version last read") String ifMatch,
+            @Valid @RequestBody @Parameter(description = "The fields to change") TaskPatchRequest patch) {
+        Long userId = userDetails.getUserId();
+        return taskVersioned(taskService.patchTask(userId, id, patch, parseVersion(ifMatch)));
     }
 
-    @Operation(summary = "Delete task", description = "Delete an existing task for the authenticated user.")
+    @Operation(summary = "Delete task", description = "Move an existing task of the authenticated user to the trash. " +
+            "It can be restored until it is purged after the trash retention.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Successfully deleted task"),
+            @ApiResponse(responseCode = "204", description = "Successfully moved task to the trash"),
             @ApiResponse(responseCode = "404", description = "Task not found")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id) {
+        Long userId = userDetails.getUserId();
+        taskService.deleteTask(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Get trash", description = "Retrieve the deleted tasks of the authenticated user that have not " +
+            "been purged yet, most recently deleted first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the trash",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/trash")
+    public ResponseEntity<List<TaskDTO>> getTrash(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @RequestParam(value = "limit", required = false) @Parameter(description = "The maximum number of tasks") Integer limit) {
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(taskService.getTrash(userId, limit));
+    }
+
+    @Operation(summary = "Restore task", description = "Move a task of the authenticated user out of the trash.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully restored task",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Task not found in the trash")
+    })
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<TaskDTO> restoreTask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
             @PathVariable(value = "id") @Parameter(description = "The task ID") Long id) {
-        taskService.deleteTask(id);
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(taskService.restoreTask(userId, id));
+    }
+
+    @Operation(summary = "Update occurrence", description = "Complete, cancel or move one occurrence of a recurring task " +
+            "of the authenticated user. The other occurrences keep following the rule.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated occurrence",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "204", description = "Successfully cancelled occurrence"),
+            @ApiResponse(responseCode = "404", description = "Task or occurrence not found")
+    })
+    @PutMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<TaskDTO> updateOccurrence(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @PathVariable(value = "date") @DateTimeFormat(pattern = "yyyy-MM-dd") @Parameter(description = "The date the rule gives the occurrence") LocalDate date,
+            @RequestBody @Parameter(description = "The changes to the occurrence") TaskOccurrenceRequest request) {
+        Long userId = userDetails.getUserId();
+        TaskDTO occurrence = taskService.updateOccurrence(userId, id, date, request);
+        return occurrence != null ? ResponseEntity.ok(occurrence) : ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Reset occurrence", description = "Drop the changes made to one occurrence of a recurring task " +
+            "of the authenticated user, so it follows the rule again.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successfully reset occurrence"),
+            @ApiResponse(responseCode = "404", description = "Task or occurrence not found")
+    })
+    @DeleteMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<Void> resetOccurrence(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @PathVariable(value = "date") @DateTimeFormat(pattern = "yyyy-MM-dd") @Parameter(description = "The date the rule gives the occurrence") LocalDate date) {
+        Long userId = userDetails.getUserId();
+        taskService.resetOccurrence(userId, id, date);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Add subtask", description = "Add an item to the checklist of a task of the authenticated user, " +
+            "directly under the task or nested under another item.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully added subtask, the task is returned with its checklist",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid subtask input, full checklist or nesting too deep"),
+            @ApiResponse(responseCode = "404", description = "Task or parent subtask not found")
+    })
+    @PostMapping("/{id}/subtasks")
+    public ResponseEntity<TaskDTO> addSubtask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @Valid @RequestBody @Parameter(description = "The subtask to add") SubtaskRequest request) {
+        Long userId = userDetails.getUserId();
+        return taskVersioned(taskService.addSubtask(userId, id, request));
+    }
+
+    @Operation(summary = "Update subtask", description = "Rename, complete, reopen or reorder an item of the checklist of a task " +
+            "of the authenticated user. Completing or reopening an item does the same to the items nested under it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated subtask, the task is returned with its checklist",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid subtask input"),
+            @ApiResponse(responseCode = "404", description = "Task or subtask not found")
+    })
+    @PatchMapping("/{id}/subtasks/{subtaskId}")
+    public ResponseEntity<TaskDTO> updateSubtask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @PathVariable(value = "subtaskId") @Parameter(description = "The subtask ID") Long subtaskId,
+            @Valid @RequestBody @Parameter(description = "The fields to change") SubtaskPatchRequest patch) {
+        Long userId = userDetails.getUserId();
+        return taskVersioned(taskService.updateSubtask(userId, id, subtaskId, patch));
+    }
+
+    @Operation(summary = "Delete subtask", description = "Remove an item, and the items nested under it, from the checklist " +
+            "of a task of the authenticated user.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successfully deleted subtask"),
+            @ApiResponse(responseCode = "404", description = "Task or subtask not found")
+    })
+    @DeleteMapping("/{id}/subtasks/{subtaskId}")
+    public ResponseEntity<Void> deleteSubtask(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
+            @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
+            @PathVariable(value = "subtaskId") @Parameter(description = "The subtask ID") Long subtaskId) {
+        Long userId = userDetails.getUserId();
+        taskService.deleteSubtask(userId, id, subtaskId);
         return ResponseEntity.noContent().build();
     }
 
@@ -119,13 +636,77 @@ public class TaskController {
             @ApiResponse(responseCode = "200", description = "Successfully updated task status",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = TaskDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid field"),
             @ApiResponse(responseCode = "404", description = "Task not found")
     })
     @PutMapping("/{id}/status")
     public ResponseEntity<TaskDTO> updateTaskStatus(
+            @AuthenticationPrincipal @Parameter(description = "The authenticated user's details") CustomUserDetails userDetails,
             @PathVariable(value = "id") @Parameter(description = "The task ID") Long id,
             @RequestParam("field") @Parameter(description = "The field to update the status") String field,
             @RequestBody @Parameter(description = "The status change request") ChangeTaskStatusRequest request) {
-        return ResponseEntity.ok(taskService.updateTaskStatus(id, field, request));
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(taskService.updateTaskStatus(userId, id, field, request));
+    }
+
+    /**
+     * Streams the matching tasks to the response as they are read from the database, either one JSON
+     * document per line or as a single JSON array.
+     */
+    private ResponseEntity<StreamingResponseBody> streaming(Long userId, TaskFilterRequest filter, boolean ndjson) {
+        TaskFileFormat format = ndjson ? TaskFileFormat.NDJSON : TaskFileFormat.JSON;
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .cacheControl(CacheControl.noStore())
+                .body(outputStream -> taskExporter.export(userId, filter, format, outputStream));
+    }
+
+    /**
+     * Reads the task version from an If-Match header, which may be sent as {@code 3} or {@code "3"}.
+     * A missing header or {@code *} matches any version. If-Match uses strong comparison, so a weak
+     * tag such as {@code W/"3"} never matches.
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            throw new CustomException(HttpStatus.PRECONDITION_FAILED, "If-Match must carry the strong ETag of the task");
+        }
+        if (version.length() >= 2 && version.startsWith("\"") && version.endsWith("\"")) {
+            version = version.substring(1, version.length() - 1);
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "If-Match must carry the task version");
+        }
+    }
+
+    /**
+     * Responds with a single task tagged with its own version, to be sent back in If-Match.
+     */
+    private ResponseEntity<TaskDTO> taskVersioned(TaskDTO task) {
+        return ResponseEntity.ok()
+                .eTag(taskETag(task))
+                .body(task);
+    }
+
+    /**
+     * Returns the strong entity tag of a single task, its version in quotes.
+     */
+    private static String taskETag(TaskDTO task) {
+        return "\"" + task.getVersion() + "\"";
+    }
+
+    /**
+     * Starts a 200 response tagged with the version of the user's task set. Browsers must revalidate
+     * before reuse, and the response is private to the user.
+     */
+    private ResponseEntity.BodyBuilder versioned(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
     }
 }
@@ -0,0 +1,50 @@
+package org.khanhpham.todo.counter;
+
+import org.khanhpham.todo.repository.TaskCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recounts every user's tasks and corrects counters that drifted, for example through a change made
+ * while the user's counter row was being created. Each user is fixed in its own short transaction.
+ */
+@Component
+public class TaskCounterReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(TaskCounterReconciler.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskCounters taskCounters;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskCounterReconciler(TaskCounterRepository taskCounterRepository, TaskCounters taskCounters,
+                                 TransactionTemplate transactionTemplate) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.taskCounters = taskCounters;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${app.tasks.counters.reconcile-cron}")
+    public void reconcile() {
+        long checked = 0;
+        long drifted = 0;
+        Long after = Long.MIN_VALUE;
+        List<Long> userIds;
+        while (!(userIds = taskCounterRepository.findUserIdsAfter(after, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            for (Long userId : userIds) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> taskCounters.reconcile(userId)))) {
+                    drifted++;
+                }
+                checked++;
+            }
+            after = userIds.get(userIds.size() - 1);
+        }
+        logger.info("Reconciled task counters of {} users, {} had drifted", checked, drifted);
+    }
+}
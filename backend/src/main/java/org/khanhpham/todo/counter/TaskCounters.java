@@ -0,0 +1,199 @@
+package org.khanhpham.todo.counter;
+
+import org.khanhpham.todo.entity.TaskCounter;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.payload.response.TaskSummaryResponse;
+import org.khanhpham.todo.repository.TaskCounterRepository;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.projection.TaskCounts;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the per-user {@link TaskCounter} rows. Task changes made in a transaction are collected
+ * and applied just before it commits, with one locked read and one update per user, so a batch of a
+ * thousand changes costs the same two statements as a single one and the counters commit or roll back
+ * together with the tasks.
+ * <p>
+ * Overdue and due-today depend on the date, so the stored values are relative to the row's
+ * {@code asOf} day. A change only adjusts them for tasks dated on or before that day; tasks dated
+ * after it are picked up when the row is rolled forward, which counts the open tasks of the days in
+ * between through the {@code (user_id, deleted_date, isCompleted, date)} index.
+ */
+@Component
+public class TaskCounters {
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskCounters(TaskCounterRepository taskCounterRepository, TaskRepository taskRepository,
+                        TransactionTemplate transactionTemplate) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Returns the user's counters, creating them with a full count the first time and rolling them
+     * forward when the day has changed since they were last read.
+     *
+     * @param userId the owner of the tasks
+     * @return the current counts
+     */
+    public TaskSummaryResponse summary(Long userId) {
+        LocalDate today = LocalDate.now();
+        Optional<TaskCounter> counter = taskCounterRepository.findById(userId);
+        if (counter.isPresent() && counter.get().getAsOf().equals(today)) {
+            return toResponse(counter.get());
+        }
+        if (counter.isEmpty()) {
+            initialize(userId, today);
+        }
+        return transactionTemplate.execute(status -> {
+            TaskCounter locked = taskCounterRepository.findForUpdate(userId).orElseThrow();
+            rollForward(locked, today);
+            return toResponse(locked);
+        });
+    }
+
+    /**
+     * Recounts the user's tasks and overwrites the counters. Must run in a transaction.
+     *
+     * @param userId the owner of the tasks
+     * @return {@code true} if the stored counters had drifted
+     */
+    public boolean reconcile(Long userId) {
+        Optional<TaskCounter> locked = taskCounterRepository.findForUpdate(userId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        TaskCounter counter = locked.get();
+        TaskCounter actual = count(userId, LocalDate.now());
+        boolean drifted = counter.getTotal() != actual.getTotal()
+                || counter.getCompleted() != actual.getCompleted()
+                || counter.getImportant() != actual.getImportant()
+                || counter.getOverdue() != actual.getOverdue()
+                || counter.getDueToday() != actual.getDueToday();
+        counter.setTotal(actual.getTotal());
+        counter.setCompleted(actual.getCompleted());
+        counter.setImportant(actual.getImportant());
+        counter.setOverdue(actual.getOverdue());
+        counter.setDueToday(actual.getDueToday());
+        counter.setAsOf(actual.getAsOf());
+        return drifted;
+    }
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.remote()) {
+            // Applied to the shared row by the node that made the change
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> apply(event.userId(), List.of(event)));
+            return;
+        }
+        pendingChanges().computeIfAbsent(event.userId(), id -> new ArrayList<>()).add(event);
+    }
+
+    /**
+     * Returns the changes collected in the current transaction, registering the hook that applies them
+     * before commit on first use.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<TaskChangedEvent>> pendingChanges() {
+        Map<Long, List<TaskChangedEvent>> pending = (Map<Long, List<TaskChangedEvent>>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Long, List<TaskChangedEvent>> changes = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                changes.forEach(TaskCounters.this::apply);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(TaskCounters.this);
+            }
+        });
+        return changes;
+    }
+
+    private void apply(Long userId, List<TaskChangedEvent> events) {
+        // Without a row the counters are built by a full count on the next read, which sees these changes
+        taskCounterRepository.findForUpdate(userId).ifPresent(counter -> {
+            for (TaskChangedEvent event : events) {
+                adjust(counter, event.before(), -1);
+                adjust(counter, event.after(), 1);
+            }
+        });
+    }
+
+    private static void adjust(TaskCounter counter, TaskDTO task, int sign) {
+        if (task == null) {
+            return;
+        }
+        counter.setTotal(counter.getTotal() + sign);
+        if (task.isCompleted()) {
+            counter.setCompleted(counter.getCompleted() + sign);
+        }
+        if (task.isImportant()) {
+            counter.setImportant(counter.getImportant() + sign);
+        }
+        if (!task.isCompleted() && task.getDate() != null) {
+            if (task.getDate().isBefore(counter.getAsOf())) {
+                counter.setOverdue(counter.getOverdue() + sign);
+            } else if (task.getDate().equals(counter.getAsOf())) {
+                counter.setDueToday(counter.getDueToday() + sign);
+            }
+        }
+    }
+
+    private void rollForward(TaskCounter counter, LocalDate today) {
+        if (!counter.getAsOf().isBefore(today)) {
+            return;
+        }
+        Long userId = counter.getUserId();
+        counter.setOverdue(counter.getOverdue() + taskRepository.countOpenBetween(userId, counter.getAsOf(), today));
+        counter.setDueToday(taskRepository.countOpenBetween(userId, today, today.plusDays(1)));
+        counter.setAsOf(today);
+    }
+
+    private void initialize(Long userId, LocalDate today) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> taskCounterRepository.save(count(userId, today)));
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the row first
+        }
+    }
+
+    private TaskCounter count(Long userId, LocalDate today) {
+        TaskCounts counts = taskRepository.countByUser(userId, today);
+        return new TaskCounter(userId, valueOf(counts.total()), valueOf(counts.completed()), valueOf(counts.important()),
+                valueOf(counts.overdue()), valueOf(counts.dueToday()), today);
+    }
+
+    private static long valueOf(Long count) {
+        return count == null ? 0 : count;
+    }
+
+    private static TaskSummaryResponse toResponse(TaskCounter counter) {
+        return new TaskSummaryResponse(counter.getTotal(), counter.getCompleted(), counter.getImportant(),
+                counter.getOverdue(), counter.getDueToday());
+    }
+}
@@ -0,0 +1,63 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.common.ChangeLogKind;
+import org.khanhpham.todo.common.TaskChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a node changed a task or a user, so the other nodes can drop what they cached about it.
+ * Entries are appended in the transaction of the change and read back in ID order by every node. The
+ * ID is an auto-increment, allocated just before commit, so entries become visible in nearly the order
+ * of their IDs and a missing ID means a transaction is still committing or was rolled back.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_created", columnList = "created_date")
+})
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The {@code app.id.node-id} of the node that made the change.
+     */
+    @Column(name = "node_id", nullable = false)
+    private int nodeId;
+
+    /**
+     * The {@code ChangeLogInstance} ID of the running node that made the change, drawn anew on every start.
+     */
+    @Column(name = "instance_id", nullable = false)
+    private long instanceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeLogKind kind;
+
+    /**
+     * The latest kind of change of the task in the transaction, {@code null} for users.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TaskChangeType type;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,58 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.common.EmailStatus;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be delivered. Rows are written in the transaction of whatever caused the email
+ * and deleted once the SMTP server accepted the message; a message that keeps failing is kept as
+ * {@link EmailStatus#DEAD} with the last error.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmailStatus status;
+
+    private int attempts;
+
+    /**
+     * When a pending email may be tried next, or when the claim on an email being sent runs out.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+}
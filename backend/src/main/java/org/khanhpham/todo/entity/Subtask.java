@@ -0,0 +1,51 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+/**
+ * A checklist item of a task, possibly nested under another item of the same task. Every item carries
+ * the ID of its task whatever its depth, so the whole tree of any set of tasks is read with one query
+ * on that column and assembled in memory.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "subtasks", indexes = {
+        @Index(name = "idx_subtasks_task_position", columnList = "task_id, position")
+})
+public class Subtask extends AudiEntity {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The item this one is nested under, {@code null} for an item directly under the task.
+     */
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    /**
+     * Zero-based position among the items with the same parent.
+     */
+    @Column(name = "position", nullable = false)
+    private int position;
+}
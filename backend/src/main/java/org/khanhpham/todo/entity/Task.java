@@ -2,8 +2,12 @@ package org.khanhpham.todo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.khanhpham.todo.common.RecurrenceFrequency;
+import org.khanhpham.todo.id.TimeOrderedId;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @AllArgsConstructor
@@ -11,10 +15,20 @@ import java.time.LocalTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+@DynamicUpdate
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_deleted_date_time", columnList = "user_id, deleted_date, date, time, id"),
+        @Index(name = "idx_tasks_user_deleted_completed_date_time", columnList = "user_id, deleted_date, isCompleted, date, time, id"),
+        @Index(name = "idx_tasks_user_deleted_important_date_time", columnList = "user_id, deleted_date, isImportant, date, time, id"),
+        @Index(name = "idx_tasks_user_deleted_title", columnList = "user_id, deleted_date, title"),
+        @Index(name = "idx_tasks_user_deleted_updated", columnList = "user_id, deleted_date, updated_date"),
+        @Index(name = "idx_tasks_completed_deleted_date_time", columnList = "isCompleted, deleted_date, date, time"),
+        @Index(name = "idx_tasks_deleted", columnList = "deleted_date"),
+        @Index(name = "idx_tasks_user_deleted_recurrence", columnList = "user_id, deleted_date, recurrence_frequency, recurrence_end")
+})
 public class Task extends AudiEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @Column(name = "title", nullable = false)
@@ -35,7 +49,45 @@ public class Task extends AudiEntity {
     @Column(name = "isCompleted")
     private boolean isCompleted = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "deleted_date")
+    private LocalDateTime deletedDate;
+
+    // Recurrence rule, all null for a one-off task; the date is the first occurrence, see RecurrenceRule
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_frequency", length = 16)
+    private RecurrenceFrequency recurrenceFrequency;
+
+    @Column(name = "recurrence_interval")
+    private Integer recurrenceInterval;
+
+    @Column(name = "recurrence_days")
+    private Integer recurrenceDays;
+
+    @Column(name = "recurrence_until")
+    private LocalDate recurrenceUntil;
+
+    @Column(name = "recurrence_count")
+    private Integer recurrenceCount;
+
+    /**
+     * Date of the last occurrence, or {@code null} if the series never ends, so a range query can skip
+     * the series that ended before it.
+     */
+    @Column(name = "recurrence_end")
+    private LocalDate recurrenceEnd;
+
+    /**
+     * Due date and time the last reminder was sent for. The node sending a reminder claims it by setting
+     * this first, so each due time is reminded once however many nodes scheduled it.
+     */
+    @Column(name = "reminded_for")
+    private LocalDateTime remindedFor;
 }
@@ -0,0 +1,46 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Running counts of one user's tasks, kept up to date by every task mutation so the summary can be
+ * read without counting rows. The overdue and due-today counts are relative to {@link #asOf}; they are
+ * rolled forward the first time the summary is read on a later day.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_counters")
+public class TaskCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long total;
+
+    private long completed;
+
+    private long important;
+
+    /**
+     * Open tasks dated before {@link #asOf}.
+     */
+    private long overdue;
+
+    /**
+     * Open tasks dated {@link #asOf}.
+     */
+    @Column(name = "due_today")
+    private long dueToday;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDate asOf;
+}
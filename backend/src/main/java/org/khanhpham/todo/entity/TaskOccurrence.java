@@ -0,0 +1,61 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * An occurrence of a recurring task that differs from its rule: completed, cancelled or moved.
+ * Occurrences that follow the rule are never stored.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_occurrences", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_occurrences_task_date", columnNames = {"task_id", "occurrence_date"})
+}, indexes = {
+        @Index(name = "idx_task_occurrences_user_date", columnList = "user_id, date")
+})
+public class TaskOccurrence {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The date the rule gives this occurrence, which identifies it even when it is moved.
+     */
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "cancelled", nullable = false)
+    private boolean cancelled;
+
+    /**
+     * The date the occurrence was moved to, {@code null} if it was not moved.
+     */
+    @Column(name = "date")
+    private LocalDate date;
+
+    /**
+     * The time the occurrence was moved to, {@code null} to keep the task's time.
+     */
+    @Column(name = "time")
+    private LocalTime time;
+}
@@ -0,0 +1,34 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+/**
+ * A tag of a task. Names are stored normalized, see {@link org.khanhpham.todo.tag.TaskTagIndex#normalize}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_tags", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_tags_task_name", columnNames = {"task_id", "name"})
+})
+public class TaskTag {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "name", nullable = false, length = 32)
+    private String name;
+}
@@ -0,0 +1,40 @@
+package org.khanhpham.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.id.TimeOrderedId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a task was deleted, so syncing clients can learn about the deletion.
+ * Tombstones are purged once they are older than the sync token retention, and removed when the task
+ * is restored from the trash.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_user_deleted", columnList = "user_id, deleted_date"),
+        @Index(name = "idx_task_tombstones_deleted", columnList = "deleted_date"),
+        @Index(name = "idx_task_tombstones_task", columnList = "task_id")
+})
+public class TaskTombstone {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "deleted_date", nullable = false)
+    private LocalDateTime deletedDate;
+}
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.khanhpham.todo.common.TokenType;
+import org.khanhpham.todo.id.TimeOrderedId;
 
 import java.time.LocalDateTime;
 
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 @Table(name = "tokens")
 public class Token extends AudiEntity{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     private String tokenValue;
     private TokenType type;
@@ -0,0 +1,26 @@
+package org.khanhpham.todo.event;
+
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+/**
+ * Published by the task service after every mutation of a task, so in-process structures
+ * derived from the {@code tasks} table can be kept current incrementally.
+ * Listeners holding in-memory state apply it after commit; only listeners writing to the database
+ * run inside the transaction.
+ *
+ * @param type   the kind of mutation
+ * @param userId the owner of the task
+ * @param taskId the ID of the task
+ * @param before the state before the mutation, {@code null} for {@link TaskChangeType#CREATED} and
+ *               {@link TaskChangeType#RESTORED}, and for remote changes
+ * @param after  the state after the mutation, {@code null} for {@link TaskChangeType#DELETED}
+ * @param remote whether another node made the change; it is already committed, and listeners that
+ *               write to the database must ignore it
+ */
+public record TaskChangedEvent(TaskChangeType type, Long userId, Long taskId, TaskDTO before, TaskDTO after,
+                               boolean remote) {
+    public TaskChangedEvent(TaskChangeType type, Long userId, Long taskId, TaskDTO before, TaskDTO after) {
+        this(type, userId, taskId, before, after, false);
+    }
+}
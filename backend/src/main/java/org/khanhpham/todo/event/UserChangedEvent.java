@@ -0,0 +1,14 @@
+package org.khanhpham.todo.event;
+
+/**
+ * Published by the user service after every mutation of a user, so in-process structures holding
+ * user data or credentials can drop what they derived from the previous state.
+ *
+ * @param userId the ID of the user
+ * @param remote whether another node made the change
+ */
+public record UserChangedEvent(Long userId, boolean remote) {
+    public UserChangedEvent(Long userId) {
+        this(userId, false);
+    }
+}
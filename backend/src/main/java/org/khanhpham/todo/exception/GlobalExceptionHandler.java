@@ -1,6 +1,7 @@
 package org.khanhpham.todo.exception;
 
 import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -36,6 +37,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDetails, exception.getStatus());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception,
+                                                                                WebRequest webRequest) {
+        ErrorDetails errorDetails = createErrorDetails("The resource was changed by another request, reload it and try again",
+                webRequest);
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     // global exceptions
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
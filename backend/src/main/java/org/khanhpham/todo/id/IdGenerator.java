@@ -0,0 +1,13 @@
+package org.khanhpham.todo.id;
+
+/**
+ * Source of 64-bit entity IDs assigned by the application before the row is inserted.
+ */
+public interface IdGenerator {
+    /**
+     * Returns a new ID. Implementations must be safe to call from many threads at once.
+     *
+     * @return an ID not returned before by this generator
+     */
+    long nextId();
+}
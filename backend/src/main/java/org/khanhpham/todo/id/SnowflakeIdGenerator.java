@@ -0,0 +1,62 @@
+package org.khanhpham.todo.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered IDs in the Snowflake layout: 41 bits of milliseconds since
+ * {@link #EPOCH}, 10 bits of node ID and 12 bits of sequence within the millisecond. IDs from one
+ * node are strictly increasing, IDs from different nodes never collide as long as every node has its
+ * own node ID, and IDs sort roughly by creation time, so new rows are appended at the end of the
+ * primary key index.
+ * <p>
+ * The last timestamp and sequence live in a single {@link AtomicLong} and are advanced with
+ * compare-and-set, so generating an ID never blocks. When more than 4096 IDs are requested within a
+ * millisecond, or the wall clock moves backwards, the generator keeps counting from its last value
+ * and runs slightly ahead of the clock until the clock catches up.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    /**
+     * Milliseconds since the epoch shifted left by {@link #SEQUENCE_BITS}, plus the sequence. Adding one
+     * carries an overflowing sequence into the next millisecond.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock the current time in epoch milliseconds
+     */
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+            long next = now > last ? now : last + 1;
+            if (state.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.khanhpham.todo.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity ID that is assigned by the application's {@link IdGenerator} when the entity is
+ * persisted. Unlike {@code GenerationType.IDENTITY}, the ID is known before the insert, so Hibernate
+ * can send inserts in JDBC batches.
+ */
+@IdGeneratorType(TimeOrderedIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
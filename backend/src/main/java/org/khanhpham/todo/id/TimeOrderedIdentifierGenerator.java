@@ -0,0 +1,22 @@
+package org.khanhpham.todo.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Bridges {@link TimeOrderedId} to the application's {@link IdGenerator}. Hibernate creates its
+ * generators itself, outside the Spring context, so the generator to use is installed here when the
+ * context starts. Until then a generator for node 0 is used, which keeps JPA slice tests working.
+ */
+public class TimeOrderedIdentifierGenerator implements IdentifierGenerator {
+    private static volatile IdGenerator delegate = new SnowflakeIdGenerator(0);
+
+    public static void use(IdGenerator idGenerator) {
+        delegate = idGenerator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return delegate.nextId();
+    }
+}
@@ -0,0 +1,38 @@
+package org.khanhpham.todo.mapper;
+
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.recurrence.RecurrenceRule;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Task conversions, implemented at compile time by MapStruct as plain getter/setter calls.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, imports = RecurrenceRule.class)
+public interface TaskMapper {
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "createdDate", expression = "java(String.valueOf(task.getCreatedDate()))")
+    @Mapping(target = "updatedDate", expression = "java(String.valueOf(task.getUpdatedDate()))")
+    @Mapping(target = "recurrence", expression = "java(RecurrenceRule.describe(task.getRecurrenceFrequency(), " +
+            "task.getRecurrenceInterval(), task.getRecurrenceDays(), task.getRecurrenceUntil(), task.getRecurrenceCount()))")
+    TaskDTO toDto(Task task);
+
+    Task toEntity(TaskRequest taskRequest);
+
+    TaskDTO copy(TaskDTO task);
+
+    default TaskDTO toDto(TaskProjection task) {
+        TaskDTO taskDTO = new TaskDTO(task.id(), task.title(), task.description(), task.date(), task.time(),
+                task.isCompleted(), task.isImportant(), task.userId(), task.version(), task.deletedDate(),
+                RecurrenceRule.describe(task.recurrenceFrequency(), task.recurrenceInterval(), task.recurrenceDays(),
+                        task.recurrenceUntil(), task.recurrenceCount()),
+                null, null, null, null, null);
+        taskDTO.setCreatedDate(String.valueOf(task.createdDate()));
+        taskDTO.setUpdatedDate(String.valueOf(task.updatedDate()));
+        return taskDTO;
+    }
+}
@@ -0,0 +1,21 @@
+package org.khanhpham.todo.mapper;
+
+import org.khanhpham.todo.entity.Token;
+import org.khanhpham.todo.payload.dto.TokenDTO;
+import org.khanhpham.todo.payload.request.TokenRequest;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Token conversions, implemented at compile time by MapStruct as plain getter/setter calls.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface TokenMapper {
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "createdDate", expression = "java(String.valueOf(token.getCreatedDate()))")
+    @Mapping(target = "updatedDate", expression = "java(String.valueOf(token.getUpdatedDate()))")
+    TokenDTO toDto(Token token);
+
+    Token toEntity(TokenRequest tokenRequest);
+}
@@ -0,0 +1,13 @@
+package org.khanhpham.todo.mapper;
+
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.payload.dto.UserDTO;
+import org.mapstruct.Mapper;
+
+/**
+ * User conversions, implemented at compile time by MapStruct as plain getter/setter calls.
+ */
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+    UserDTO toDto(User user);
+}
@@ -0,0 +1,45 @@
+package org.khanhpham.todo.payload.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.khanhpham.todo.common.RecurrenceFrequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Recurrence rule of a task. The task's date is the first occurrence; a series ends on its until date,
+ * after count occurrences, or never when both are left out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecurrenceDTO {
+    @NotNull(message = "Frequency must not be null")
+    private RecurrenceFrequency frequency;
+
+    /**
+     * Number of days, weeks or months between occurrences, 1 when left out.
+     */
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 99, message = "Interval must be at most 99")
+    private Integer interval;
+
+    /**
+     * Days of the week of a weekly series, the day of the task's date when left out.
+     */
+    private Set<DayOfWeek> byDay;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate until;
+
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = 1000, message = "Count must be at most 1000")
+    private Integer count;
+}
@@ -0,0 +1,36 @@
+package org.khanhpham.todo.payload.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.khanhpham.todo.entity.Subtask;
+
+import java.util.List;
+
+/**
+ * DTO for {@link Subtask}, with its children and their roll-up. An item with children is completed when
+ * all of them are, and its progress is the share of completed items without children below it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubtaskDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long parentId;
+    private String title;
+    private boolean completed;
+    private int position;
+    private int childCount;
+    /**
+     * Completion percentage, from 0 to 100.
+     */
+    private int progress;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<SubtaskDTO> children;
+}
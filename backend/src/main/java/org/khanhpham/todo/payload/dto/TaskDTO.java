@@ -1,10 +1,16 @@
 package org.khanhpham.todo.payload.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.*;
 import org.khanhpham.todo.entity.Task;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * DTO for {@link Task}
@@ -16,6 +22,7 @@ import java.time.LocalTime;
 @Getter
 @Setter
 public class TaskDTO extends AudiDTO{
+    @JsonSerialize(using = ToStringSerializer.class)
     Long id;
     String title;
     String description;
@@ -23,5 +30,36 @@ public class TaskDTO extends AudiDTO{
     LocalTime time;
     boolean isCompleted;
     boolean isImportant;
+    @JsonSerialize(using = ToStringSerializer.class)
     Long userId;
+    long version;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    LocalDateTime deletedDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    RecurrenceDTO recurrence;
+    /**
+     * Set on an occurrence of a recurring task: the date the rule gives it, which identifies it.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    LocalDate occurrenceDate;
+    /**
+     * Checklist of the task as a tree; set on single tasks and pages, left out of other listings.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<SubtaskDTO> subtasks;
+    /**
+     * Number of items directly under the task.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Integer subtaskCount;
+    /**
+     * Completion percentage of the checklist, from 0 to 100, {@code null} when it is empty.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Integer progress;
+    /**
+     * Normalized tag names; in change events, {@code null} means the tags did not change.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Set<String> tags;
 }
\ No newline at end of file
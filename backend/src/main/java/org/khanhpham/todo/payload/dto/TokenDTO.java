@@ -1,5 +1,7 @@
 package org.khanhpham.todo.payload.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.*;
 import org.khanhpham.todo.common.TokenType;
 import org.khanhpham.todo.entity.Token;
@@ -16,9 +18,11 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public class TokenDTO extends AudiDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     Long id;
     String tokenValue;
     TokenType type;
     LocalDateTime expires;
+    @JsonSerialize(using = ToStringSerializer.class)
     Long userId;
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package org.khanhpham.todo.payload.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.*;
 import org.khanhpham.todo.entity.User;
 
@@ -12,6 +14,7 @@ import org.khanhpham.todo.entity.User;
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String email;
     private String username;
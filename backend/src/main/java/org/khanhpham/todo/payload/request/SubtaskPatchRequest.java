@@ -0,0 +1,27 @@
+package org.khanhpham.todo.payload.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of a subtask. A missing or {@code null} field keeps its current value. Completing or
+ * reopening an item does the same to every item nested under it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubtaskPatchRequest {
+    @Pattern(regexp = "(?s).*\\S.*", message = "Subtask name must not be blank")
+    private String title;
+
+    private Boolean completed;
+
+    /**
+     * Zero-based position among its siblings.
+     */
+    @Min(value = 0, message = "Position must not be negative")
+    private Integer position;
+}
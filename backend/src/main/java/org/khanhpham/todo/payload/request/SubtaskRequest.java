@@ -0,0 +1,26 @@
+package org.khanhpham.todo.payload.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubtaskRequest {
+    @NotBlank(message = "Subtask name must not be blank")
+    private String title;
+
+    /**
+     * The item to nest the new one under, {@code null} to add it directly under the task.
+     */
+    private Long parentId;
+
+    /**
+     * Zero-based position among its siblings, after the last one when left out.
+     */
+    @Min(value = 0, message = "Position must not be negative")
+    private Integer position;
+}
@@ -0,0 +1,20 @@
+package org.khanhpham.todo.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBatchRequest {
+    @NotEmpty(message = "Operations must not be empty")
+    @Size(max = 1000, message = "A batch holds at most 1000 operations")
+    private List<@Valid @NotNull TaskOperationRequest> operations;
+}
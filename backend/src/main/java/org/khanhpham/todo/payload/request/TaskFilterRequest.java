@@ -0,0 +1,44 @@
+package org.khanhpham.todo.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.khanhpham.todo.common.TaskSortOrder;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Criteria of a task query. Every criterion is optional; the ones that are set are combined with AND.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskFilterRequest {
+    private Boolean completed;
+
+    private Boolean important;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dateFrom;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dateTo;
+
+    /**
+     * Start of the time-of-day window. A window whose start is after its end wraps around midnight.
+     */
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime timeFrom;
+
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime timeTo;
+
+    /**
+     * Case-sensitive prefix of the task title.
+     */
+    private String title;
+
+    private TaskSortOrder sort = TaskSortOrder.DATE_ASC;
+}
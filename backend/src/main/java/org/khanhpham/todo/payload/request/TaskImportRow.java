@@ -0,0 +1,18 @@
+package org.khanhpham.todo.payload.request;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One task read from an import file. Besides the fields of a {@link TaskRequest}, and its
+ * constraints, a row may carry the task's flags.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TaskImportRow extends TaskRequest {
+    private boolean important;
+
+    private boolean completed;
+}
@@ -0,0 +1,27 @@
+package org.khanhpham.todo.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Change to one occurrence of a recurring task. A missing or {@code null} field keeps its current value.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskOccurrenceRequest {
+    private Boolean completed;
+
+    private Boolean cancelled;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime time;
+}
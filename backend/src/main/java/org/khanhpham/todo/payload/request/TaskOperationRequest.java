@@ -0,0 +1,34 @@
+package org.khanhpham.todo.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.khanhpham.todo.common.TaskOperationType;
+
+/**
+ * One operation of a task batch. Which fields are needed depends on the type:
+ * <ul>
+ *   <li>{@code CREATE}: {@code task}</li>
+ *   <li>{@code UPDATE}: {@code id} and {@code task}</li>
+ *   <li>{@code DELETE}: {@code id}</li>
+ *   <li>{@code STATUS}: {@code id}, {@code field} ({@code completed} or {@code important}) and {@code value}</li>
+ * </ul>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskOperationRequest {
+    @NotNull(message = "Operation type must not be null")
+    private TaskOperationType op;
+
+    private Long id;
+
+    @Valid
+    private TaskRequest task;
+
+    private String field;
+
+    private Boolean value;
+}
@@ -0,0 +1,44 @@
+package org.khanhpham.todo.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Partial update of a task. Only the fields present in the request are changed; a missing or
+ * {@code null} field keeps its current value.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPatchRequest {
+    @Pattern(regexp = "(?s).*\\S.*", message = "Task name must not be blank")
+    private String title;
+
+    private String description;
+
+    @Future(message = "Date must be in the future")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime time;
+
+    private Boolean completed;
+
+    private Boolean important;
+
+    /**
+     * Replaces the tags of the task, at most 20.
+     */
+    @Size(max = 20, message = "A task has at most 20 tags")
+    private Set<@Pattern(regexp = TaskRequest.TAG_PATTERN, message = "Tags are 1 to 32 letters, digits, '-' or '_'") String> tags;
+}
@@ -1,19 +1,26 @@
 package org.khanhpham.todo.payload.request;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.khanhpham.todo.payload.dto.RecurrenceDTO;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class TaskRequest {
+    public static final String TAG_PATTERN = "\\s*[\\p{L}\\p{N}_-]{1,32}\\s*";
+
     @NotBlank(message = "Task name must not be blank")
     private String title;
 
@@ -25,4 +32,13 @@ public class TaskRequest {
 
     @JsonFormat(pattern = "HH:mm")
     private LocalTime time;
+
+    @Valid
+    private RecurrenceDTO recurrence;
+
+    /**
+     * Tags of the task, at most 20. A missing or {@code null} list keeps the current tags.
+     */
+    @Size(max = 20, message = "A task has at most 20 tags")
+    private Set<@Pattern(regexp = TAG_PATTERN, message = "Tags are 1 to 32 letters, digits, '-' or '_'") String> tags;
 }
@@ -0,0 +1,34 @@
+package org.khanhpham.todo.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Tag query over tasks. Every criterion is optional; the ones that are set are combined with AND.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskTagQueryRequest {
+    /**
+     * Tags a task must all carry.
+     */
+    private List<String> all;
+
+    /**
+     * Tags of which a task must carry at least one.
+     */
+    private List<String> any;
+
+    /**
+     * Tags a task must not carry.
+     */
+    private List<String> none;
+
+    private Boolean completed;
+
+    private Boolean important;
+}
@@ -0,0 +1,19 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskBatchResponse {
+    /**
+     * One result per operation, in request order.
+     */
+    private List<TaskOperationResult> results;
+}
@@ -0,0 +1,22 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.repository.projection.TaskDayCount;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskCalendarResponse {
+    private YearMonth month;
+    /**
+     * Task counts of the days of the month that have tasks, in date order.
+     */
+    private List<TaskDayCount> days;
+}
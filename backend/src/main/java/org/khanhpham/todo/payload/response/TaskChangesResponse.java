@@ -0,0 +1,31 @@
+package org.khanhpham.todo.payload.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskChangesResponse {
+    /**
+     * Tasks created or updated since the token.
+     */
+    private List<TaskDTO> changed;
+    /**
+     * IDs of the tasks deleted since the token.
+     */
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
+    private List<Long> deleted;
+    /**
+     * Token to pass as {@code since} on the next call.
+     */
+    private String next;
+}
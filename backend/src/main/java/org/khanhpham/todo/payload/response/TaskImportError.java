@@ -0,0 +1,18 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskImportError {
+    /**
+     * Position of the rejected row in the file, starting at 1 and not counting a CSV header.
+     */
+    private long row;
+    private String message;
+}
@@ -0,0 +1,42 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Progress of a running import, sent after every committed batch and once more at the end.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskImportProgress {
+    /**
+     * Rows read so far.
+     */
+    private long processed;
+    /**
+     * Rows inserted and committed so far.
+     */
+    private long imported;
+    /**
+     * Rows rejected so far.
+     */
+    private long rejected;
+    /**
+     * The rows rejected since the previous report.
+     */
+    private List<TaskImportError> errors;
+    /**
+     * Whether this is the last report of the import.
+     */
+    private boolean done;
+    /**
+     * Why the import stopped early, or {@code null}. Batches committed before the failure are kept.
+     */
+    private String failure;
+}
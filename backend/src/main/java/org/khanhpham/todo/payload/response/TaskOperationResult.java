@@ -0,0 +1,39 @@
+package org.khanhpham.todo.payload.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.common.TaskOperationType;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskOperationResult {
+    /**
+     * Position of the operation in the request.
+     */
+    private int index;
+    private TaskOperationType op;
+    /**
+     * ID of the task the operation applied to; for a create, the ID of the new task.
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    /**
+     * HTTP status the operation would have had as a single request.
+     */
+    private int status;
+    /**
+     * Why the operation was rejected, or {@code null} if it succeeded.
+     */
+    private String error;
+    /**
+     * The task after the operation, or {@code null} for a delete or a rejected operation.
+     */
+    private TaskDTO task;
+}
@@ -0,0 +1,21 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskPageResponse {
+    private List<TaskDTO> tasks;
+    /**
+     * Cursor of the next page, {@code null} when this is the last page.
+     */
+    private String next;
+}
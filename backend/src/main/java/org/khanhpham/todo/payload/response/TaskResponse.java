@@ -1,5 +1,7 @@
 package org.khanhpham.todo.payload.response;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,5 +22,6 @@ public class TaskResponse {
     private boolean isImportant;
     private LocalDate date;
     private LocalTime time;
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long userId;
 }
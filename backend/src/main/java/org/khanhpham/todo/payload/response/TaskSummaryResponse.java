@@ -0,0 +1,24 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskSummaryResponse {
+    private long total;
+    private long completed;
+    private long important;
+    /**
+     * Open tasks dated before today.
+     */
+    private long overdue;
+    /**
+     * Open tasks dated today.
+     */
+    private long dueToday;
+}
@@ -0,0 +1,18 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskTagCount {
+    private String name;
+    /**
+     * Number of live tasks carrying the tag.
+     */
+    private long count;
+}
@@ -0,0 +1,24 @@
+package org.khanhpham.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class TaskTagQueryResponse {
+    /**
+     * Number of tasks matching the query, which may be more than the tasks returned.
+     */
+    private long total;
+    /**
+     * The newest matching tasks, newest first.
+     */
+    private List<TaskDTO> tasks;
+}
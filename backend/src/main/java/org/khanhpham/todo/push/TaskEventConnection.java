@@ -0,0 +1,134 @@
+package org.khanhpham.todo.push;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One open event stream. Changes wait in a bounded buffer keyed by task, so a burst of changes to the
+ * same task is sent once with its latest state, until a flush writes them all as a single event.
+ * Writes are serialized by a lock rather than a monitor, so a virtual thread blocked on a slow client
+ * does not pin its carrier.
+ */
+final class TaskEventConnection {
+    enum Offer {
+        /** Buffered; a flush is already due. */
+        QUEUED,
+        /** Buffered; the caller must schedule a flush. */
+        SCHEDULE,
+        /** The buffer is full; the client is too slow and must be dropped. */
+        OVERFLOW,
+        CLOSED
+    }
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final int maxPending;
+    private final Map<Long, TaskPushEvent> pending = new LinkedHashMap<>();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    TaskEventConnection(Long userId, SseEmitter emitter, int maxPending) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.maxPending = maxPending;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    synchronized Offer offer(TaskPushEvent event) {
+        if (closed) {
+            return Offer.CLOSED;
+        }
+        // Re-inserted, so the buffer stays in the order of the latest change of each task
+        pending.remove(event.taskId());
+        pending.put(event.taskId(), event);
+        if (pending.size() > maxPending) {
+            return Offer.OVERFLOW;
+        }
+        if (flushScheduled) {
+            return Offer.QUEUED;
+        }
+        flushScheduled = true;
+        return Offer.SCHEDULE;
+    }
+
+    /**
+     * Writes the buffered changes as one {@code tasks} event.
+     *
+     * @return the number of changes written
+     * @throws IOException if the client is gone
+     */
+    int flush() throws IOException {
+        sendLock.lock();
+        try {
+            List<TaskPushEvent> events = drain();
+            if (!events.isEmpty()) {
+                emitter.send(SseEmitter.event().name("tasks").data(events, MediaType.APPLICATION_JSON));
+            }
+            return events.size();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a comment line, which keeps proxies from closing an idle stream and detects clients that
+     * are gone. Skipped while another write is in progress, which proves the stream alive anyway.
+     *
+     * @throws IOException if the client is gone
+     */
+    void heartbeat() throws IOException {
+        if (!sendLock.tryLock()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    void send(SseEmitter.SseEventBuilder event) throws IOException {
+        sendLock.lock();
+        try {
+            emitter.send(event);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the connection closed, so no more changes are buffered for it.
+     *
+     * @return {@code false} if it was already closed
+     */
+    synchronized boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        pending.clear();
+        return true;
+    }
+
+    private synchronized List<TaskPushEvent> drain() {
+        List<TaskPushEvent> events = new ArrayList<>(pending.values());
+        pending.clear();
+        flushScheduled = false;
+        return events;
+    }
+}
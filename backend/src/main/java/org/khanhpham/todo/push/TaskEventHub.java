@@ -0,0 +1,182 @@
+package org.khanhpham.todo.push;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.khanhpham.todo.cache.TaskSetVersions;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed task changes to the open event streams of their owner.
+ * <p>
+ * An idle stream is an async request holding no thread. Changes are fanned out to the owner's
+ * connections only, buffered per connection and coalesced for a short delay, then written on a
+ * virtual thread, so a client that reads slowly blocks nothing but its own write. A client whose
+ * buffer overflows is disconnected; it reconnects and reloads its tasks like after any other outage.
+ */
+@Component
+public class TaskEventHub {
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventHub.class);
+
+    private final TaskSetVersions taskSetVersions;
+    private final Map<Long, Deque<TaskEventConnection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-events-scheduler").daemon().factory());
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("task-events-", 0).factory());
+    private final Counter pushed;
+    private final Counter dropped;
+
+    @Value("${app.tasks.events.timeout-ms}")
+    private long timeoutMillis;
+
+    @Value("${app.tasks.events.flush-delay-ms}")
+    private long flushDelayMillis;
+
+    @Value("${app.tasks.events.max-pending}")
+    private int maxPending;
+
+    @Value("${app.tasks.events.max-connections-per-user}")
+    private int maxConnectionsPerUser;
+
+    public TaskEventHub(TaskSetVersions taskSetVersions, MeterRegistry meterRegistry) {
+        this.taskSetVersions = taskSetVersions;
+        this.pushed = Counter.builder("tasks.events.pushed").register(meterRegistry);
+        this.dropped = Counter.builder("tasks.events.dropped").register(meterRegistry);
+        Gauge.builder("tasks.events.connections", open, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream for the user. It starts with a {@code ready} event carrying the current
+     * ETag of the user's task set, so a reconnecting client can tell whether it missed changes. Beyond
+     * the per-user limit the user's oldest stream is closed.
+     *
+     * @param userId the user whose task changes are pushed
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        TaskEventConnection connection = new TaskEventConnection(userId, emitter, maxPending);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        // Adding and removing under the map's per-key lock, so an emptied deque is never dropped while a stream joins it
+        Deque<TaskEventConnection> userConnections = connections.compute(userId, (id, current) -> {
+            Deque<TaskEventConnection> deque = current != null ? current : new ConcurrentLinkedDeque<>();
+            deque.addLast(connection);
+            return deque;
+        });
+        open.incrementAndGet();
+        while (userConnections.size() > maxConnectionsPerUser) {
+            TaskEventConnection oldest = userConnections.pollFirst();
+            if (oldest != null && oldest.close()) {
+                open.decrementAndGet();
+                oldest.emitter().complete();
+            }
+        }
+
+        try {
+            connection.send(SseEmitter.event().name("ready")
+                    .data(Map.of("etag", taskSetVersions.etag(userId)), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            remove(connection);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Buffers a committed change for every open stream of its owner. Changes of a rolled back
+     * transaction are never pushed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Deque<TaskEventConnection> userConnections = connections.get(event.userId());
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+        TaskPushEvent push = TaskPushEvent.of(event);
+        for (TaskEventConnection connection : userConnections) {
+            switch (connection.offer(push)) {
+                case SCHEDULE -> scheduler.schedule(() -> writers.execute(() -> flush(connection)),
+                        flushDelayMillis, TimeUnit.MILLISECONDS);
+                case OVERFLOW -> {
+                    dropped.increment();
+                    logger.info("Dropping the event stream of user {}, it fell {} changes behind", event.userId(), maxPending);
+                    close(connection);
+                }
+                default -> {
+                    // Already due to be flushed, or closed
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.tasks.events.heartbeat-ms}")
+    public void heartbeat() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection ->
+                writers.execute(() -> {
+                    try {
+                        connection.heartbeat();
+                    } catch (IOException | IllegalStateException e) {
+                        close(connection);
+                    }
+                })));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(this::close));
+        writers.shutdown();
+    }
+
+    private void flush(TaskEventConnection connection) {
+        try {
+            pushed.increment(connection.flush());
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone, or the emitter already completed
+            close(connection);
+        }
+    }
+
+    private void close(TaskEventConnection connection) {
+        if (remove(connection)) {
+            connection.emitter().complete();
+        }
+    }
+
+    private boolean remove(TaskEventConnection connection) {
+        if (!connection.close()) {
+            return false;
+        }
+        open.decrementAndGet();
+        connections.computeIfPresent(connection.userId(), (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package org.khanhpham.todo.push;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+/**
+ * A task change as pushed to the browser: the latest change of the task since the previous push.
+ *
+ * @param type   the kind of the latest change
+ * @param taskId the ID of the task
+ * @param task   the task after the change, left out when it was deleted
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskPushEvent(TaskChangeType type,
+                            @JsonSerialize(using = ToStringSerializer.class) Long taskId,
+                            TaskDTO task) {
+    static TaskPushEvent of(TaskChangedEvent event) {
+        return new TaskPushEvent(event.type(), event.taskId(), event.after());
+    }
+}
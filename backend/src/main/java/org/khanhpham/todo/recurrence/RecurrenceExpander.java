@@ -0,0 +1,115 @@
+package org.khanhpham.todo.recurrence;
+
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.TaskOccurrence;
+import org.khanhpham.todo.mapper.TaskMapper;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.repository.TaskOccurrenceRepository;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands the recurring tasks of a user into their occurrences within a date range. It reads one row
+ * per rule and the stored exceptions of the range, so the cost is bounded by the number of rules and
+ * the length of the range, never by how many occurrences a series has produced so far.
+ */
+@Component
+public class RecurrenceExpander {
+    /**
+     * Date, time and ID order of agendas, with occurrences of the same task on the same day in the order
+     * of their rule dates.
+     */
+    public static final Comparator<TaskDTO> ORDER = Comparator.comparing(TaskDTO::getDate)
+            .thenComparing(TaskDTO::getTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TaskDTO::getId)
+            .thenComparing(TaskDTO::getOccurrenceDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TaskRepository taskRepository;
+    private final TaskOccurrenceRepository taskOccurrenceRepository;
+    private final TaskMapper taskMapper;
+
+    public RecurrenceExpander(TaskRepository taskRepository, TaskOccurrenceRepository taskOccurrenceRepository,
+                              TaskMapper taskMapper) {
+        this.taskRepository = taskRepository;
+        this.taskOccurrenceRepository = taskOccurrenceRepository;
+        this.taskMapper = taskMapper;
+    }
+
+    /**
+     * Lists the occurrences of the user's recurring tasks dated from one day to another, both inclusive.
+     * Cancelled occurrences are left out, and moved ones are listed on the day they were moved to.
+     *
+     * @return the occurrences in {@link #ORDER}
+     */
+    public List<TaskDTO> expand(Long userId, LocalDate from, LocalDate to) {
+        List<Task> series = taskRepository.findRecurringBetween(userId, from, to);
+        if (series.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Map<LocalDate, TaskOccurrence>> exceptions = new HashMap<>();
+        for (TaskOccurrence exception : taskOccurrenceRepository.findBetween(series.stream().map(Task::getId).toList(), from, to)) {
+            exceptions.computeIfAbsent(exception.getTaskId(), id -> new HashMap<>())
+                    .put(exception.getOccurrenceDate(), exception);
+        }
+
+        List<TaskDTO> occurrences = new ArrayList<>();
+        for (Task task : series) {
+            RecurrenceRule rule = RecurrenceRule.of(task);
+            Map<LocalDate, TaskOccurrence> taskExceptions = exceptions.getOrDefault(task.getId(), new HashMap<>());
+            rule.forEachBetween(from, to, date -> {
+                TaskDTO occurrence = occurrence(task, date, taskExceptions.remove(date));
+                if (occurrence != null && !occurrence.getDate().isBefore(from) && !occurrence.getDate().isAfter(to)) {
+                    occurrences.add(occurrence);
+                }
+            });
+            // Occurrences moved into the range from a day outside it
+            for (TaskOccurrence exception : taskExceptions.values()) {
+                if (!rule.occursOn(exception.getOccurrenceDate())) {
+                    continue;
+                }
+                TaskDTO occurrence = occurrence(task, exception.getOccurrenceDate(), exception);
+                if (occurrence != null && !occurrence.getDate().isBefore(from) && !occurrence.getDate().isAfter(to)) {
+                    occurrences.add(occurrence);
+                }
+            }
+        }
+        occurrences.sort(ORDER);
+        return occurrences;
+    }
+
+    /**
+     * Describes one occurrence of a recurring task with its exception applied.
+     *
+     * @param task           the recurring task
+     * @param occurrenceDate the date the rule gives the occurrence
+     * @param exception      the stored exception of the occurrence, or {@code null}
+     * @return the occurrence, or {@code null} if it was cancelled
+     */
+    public TaskDTO occurrence(Task task, LocalDate occurrenceDate, TaskOccurrence exception) {
+        if (exception != null && exception.isCancelled()) {
+            return null;
+        }
+        TaskDTO occurrence = taskMapper.toDto(task);
+        occurrence.setOccurrenceDate(occurrenceDate);
+        occurrence.setDate(occurrenceDate);
+        occurrence.setCompleted(false);
+        if (exception != null) {
+            occurrence.setCompleted(exception.isCompleted());
+            if (exception.getDate() != null) {
+                occurrence.setDate(exception.getDate());
+            }
+            if (exception.getTime() != null) {
+                occurrence.setTime(exception.getTime());
+            }
+        }
+        return occurrence;
+    }
+}
@@ -0,0 +1,251 @@
+package org.khanhpham.todo.recurrence;
+
+import org.khanhpham.todo.common.RecurrenceFrequency;
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.dto.RecurrenceDTO;
+import org.springframework.http.HttpStatus;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Daily, weekly or monthly recurrence of a task starting on the task's date. Occurrences are never
+ * stored: they are computed for a requested window, starting at the first period that can fall in it,
+ * so the cost depends on the window and not on how long ago the series started.
+ * <p>
+ * Weeks start on Monday, and a monthly series skips the months that do not have the day of its start.
+ */
+public final class RecurrenceRule {
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
+    private final LocalDate start;
+    private final RecurrenceFrequency frequency;
+    private final int interval;
+    private final int days;
+    private final LocalDate until;
+    private final Integer count;
+    private final LocalDate end;
+
+    private RecurrenceRule(LocalDate start, RecurrenceFrequency frequency, Integer interval, Integer days,
+                           LocalDate until, Integer count) {
+        this.start = start;
+        this.frequency = frequency;
+        this.interval = interval != null ? interval : 1;
+        this.days = days != null && days != 0 ? days : mask(Set.of(start.getDayOfWeek()));
+        this.until = until;
+        this.count = count;
+        this.end = count != null ? nthOccurrence(count) : until;
+    }
+
+    /**
+     * Validates a rule received from a client for a series starting on the given date.
+     *
+     * @return the rule, or {@code null} if the task does not recur
+     * @throws CustomException if the rule is inconsistent
+     */
+    public static RecurrenceRule of(LocalDate start, RecurrenceDTO recurrence) {
+        if (recurrence == null) {
+            return null;
+        }
+        if (start == null) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "A recurring task needs a date");
+        }
+        if (recurrence.getUntil() != null && recurrence.getCount() != null) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "A recurrence ends either on a date or after a count, not both");
+        }
+        if (recurrence.getUntil() != null && recurrence.getUntil().isBefore(start)) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "A recurrence must not end before the task's date");
+        }
+        Set<DayOfWeek> byDay = recurrence.getByDay();
+        if (byDay != null && !byDay.isEmpty() && recurrence.getFrequency() != RecurrenceFrequency.WEEKLY) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "Days of the week only apply to a weekly recurrence");
+        }
+        return new RecurrenceRule(start, recurrence.getFrequency(), recurrence.getInterval(),
+                byDay != null ? mask(byDay) : null, recurrence.getUntil(), recurrence.getCount());
+    }
+
+    /**
+     * Reads the rule stored on a task.
+     *
+     * @return the rule, or {@code null} if the task does not recur
+     */
+    public static RecurrenceRule of(Task task) {
+        if (task.getRecurrenceFrequency() == null) {
+            return null;
+        }
+        return new RecurrenceRule(task.getDate(), task.getRecurrenceFrequency(), task.getRecurrenceInterval(),
+                task.getRecurrenceDays(), task.getRecurrenceUntil(), task.getRecurrenceCount());
+    }
+
+    /**
+     * Describes a stored rule to clients.
+     *
+     * @return the rule, or {@code null} if there is no frequency
+     */
+    public static RecurrenceDTO describe(RecurrenceFrequency frequency, Integer interval, Integer days,
+                                         LocalDate until, Integer count) {
+        if (frequency == null) {
+            return null;
+        }
+        Set<DayOfWeek> byDay = frequency == RecurrenceFrequency.WEEKLY && days != null && days != 0 ? daysOf(days) : null;
+        return new RecurrenceDTO(frequency, interval != null ? interval : 1, byDay, until, count);
+    }
+
+    /**
+     * Stores the rule on a task, or clears the task's rule when {@code rule} is {@code null}.
+     */
+    public static void store(Task task, RecurrenceRule rule) {
+        task.setRecurrenceFrequency(rule != null ? rule.frequency : null);
+        task.setRecurrenceInterval(rule != null ? rule.interval : null);
+        task.setRecurrenceDays(rule != null && rule.frequency == RecurrenceFrequency.WEEKLY ? rule.days : null);
+        task.setRecurrenceUntil(rule != null ? rule.until : null);
+        task.setRecurrenceCount(rule != null ? rule.count : null);
+        task.setRecurrenceEnd(rule != null ? rule.end : null);
+    }
+
+    public RecurrenceFrequency frequency() {
+        return frequency;
+    }
+
+    public int interval() {
+        return interval;
+    }
+
+    /**
+     * Weekday bit mask of a weekly series, bit 0 being Monday; {@code null} for other frequencies.
+     */
+    public Integer days() {
+        return frequency == RecurrenceFrequency.WEEKLY ? days : null;
+    }
+
+    public LocalDate until() {
+        return until;
+    }
+
+    public Integer count() {
+        return count;
+    }
+
+    /**
+     * Date of the last occurrence, or {@code null} if the series never ends.
+     */
+    public LocalDate end() {
+        return end;
+    }
+
+    public RecurrenceDTO toDto() {
+        return describe(frequency, interval, days(), until, count);
+    }
+
+    public boolean occursOn(LocalDate date) {
+        boolean[] found = {false};
+        forEachBetween(date, date, occurrence -> found[0] = true);
+        return found[0];
+    }
+
+    /**
+     * Hands every occurrence from {@code from} to {@code to}, both inclusive, to the action in date order.
+     */
+    public void forEachBetween(LocalDate from, LocalDate to, Consumer<LocalDate> action) {
+        LocalDate first = from.isBefore(start) ? start : from;
+        LocalDate last = end != null && end.isBefore(to) ? end : to;
+        if (first.isAfter(last)) {
+            return;
+        }
+        iterate(first, last, date -> {
+            action.accept(date);
+            return true;
+        });
+    }
+
+    private LocalDate nthOccurrence(int n) {
+        LocalDate[] last = {start};
+        int[] seen = {0};
+        iterate(start, until != null ? until : LAST_DATE, date -> {
+            last[0] = date;
+            return ++seen[0] < n;
+        });
+        return last[0];
+    }
+
+    /**
+     * Walks the occurrences between two dates on or after the start, jumping straight to the first
+     * period that can contain {@code first}, until the visitor returns {@code false}.
+     */
+    private void iterate(LocalDate first, LocalDate last, Predicate<LocalDate> visitor) {
+        switch (frequency) {
+            case DAILY -> {
+                long periods = Math.ceilDiv(ChronoUnit.DAYS.between(start, first), interval);
+                for (LocalDate date = start.plusDays(periods * interval); !date.isAfter(last); date = date.plusDays(interval)) {
+                    if (!visitor.test(date)) {
+                        return;
+                    }
+                }
+            }
+            case WEEKLY -> {
+                LocalDate startWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                LocalDate firstWeek = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                long periods = Math.ceilDiv(ChronoUnit.WEEKS.between(startWeek, firstWeek), interval);
+                for (LocalDate week = startWeek.plusWeeks(periods * interval); !week.isAfter(last); week = week.plusWeeks(interval)) {
+                    for (int day = 0; day < 7; day++) {
+                        if ((days & (1 << day)) == 0) {
+                            continue;
+                        }
+                        LocalDate date = week.plusDays(day);
+                        if (date.isBefore(first)) {
+                            continue;
+                        }
+                        if (date.isAfter(last) || !visitor.test(date)) {
+                            return;
+                        }
+                    }
+                }
+            }
+            case MONTHLY -> {
+                YearMonth startMonth = YearMonth.from(start);
+                long periods = Math.ceilDiv(ChronoUnit.MONTHS.between(startMonth, YearMonth.from(first)), interval);
+                int dayOfMonth = start.getDayOfMonth();
+                for (YearMonth month = startMonth.plusMonths(periods * interval); !month.atDay(1).isAfter(last);
+                     month = month.plusMonths(interval)) {
+                    if (dayOfMonth > month.lengthOfMonth()) {
+                        continue;
+                    }
+                    LocalDate date = month.atDay(dayOfMonth);
+                    if (date.isBefore(first)) {
+                        continue;
+                    }
+                    if (date.isAfter(last) || !visitor.test(date)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int mask(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    private static Set<DayOfWeek> daysOf(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
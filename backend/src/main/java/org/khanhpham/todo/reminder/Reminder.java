@@ -0,0 +1,26 @@
+package org.khanhpham.todo.reminder;
+
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * A pending reminder for an open task that has both a date and a time.
+ */
+public record Reminder(Long taskId, Long userId, LocalDate date, LocalTime time) {
+    /**
+     * Returns the reminder for the task, or {@code null} if the task is completed or has no due time.
+     */
+    public static Reminder of(TaskDTO task) {
+        if (task.isCompleted() || task.getDate() == null || task.getTime() == null) {
+            return null;
+        }
+        return new Reminder(task.getId(), task.getUserId(), task.getDate(), task.getTime());
+    }
+
+    public long dueMillis(ZoneId zone) {
+        return date.atTime(time).atZone(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,10 @@
+package org.khanhpham.todo.reminder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * What a reminder email needs to know about a task that came due, read when the reminder fires.
+ */
+public record ReminderTarget(Long taskId, String title, LocalDate date, LocalTime time, String email) {
+}
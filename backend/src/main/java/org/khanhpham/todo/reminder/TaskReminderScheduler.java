@@ -0,0 +1,154 @@
+package org.khanhpham.todo.reminder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a reminder for every open task coming due within the configured horizon in a
+ * {@link TimingWheel} and hands the ones that fire to the {@link TaskReminderSender}.
+ * <p>
+ * The wheel is filled at startup, and topped up periodically as the horizon moves, from a range query
+ * over the {@code (isCompleted, date, time)} index. In between, task changes made on this node schedule,
+ * move or cancel reminders directly; changes replayed from other nodes are left to the node that made
+ * them. Every node loads every reminder, so the sender claims each one in the database before sending
+ * it, which also makes a reminder left over from an outdated schedule harmless.
+ */
+@Component
+public class TaskReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TaskReminderScheduler.class);
+    private static final long TICK_MILLIS = 1000;
+
+    private final TaskRepository taskRepository;
+    private final TaskReminderSender taskReminderSender;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final TimingWheel<Reminder> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+    private final Map<Long, TimingWheel.Timeout<Reminder>> timeouts = new HashMap<>();
+    /**
+     * Reminders due up to this time, in epoch milliseconds, are in the wheel.
+     */
+    private long loadedUntil = System.currentTimeMillis();
+
+    @Value("${app.reminders.horizon-hours}")
+    private long horizonHours;
+
+    public TaskReminderScheduler(TaskRepository taskRepository, TaskReminderSender taskReminderSender,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.taskReminderSender = taskReminderSender;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("tasks.reminders.pending", this, TaskReminderScheduler::pending).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        extendHorizon();
+    }
+
+    /**
+     * Loads the reminders that came within the horizon since the last load.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.refill-interval-ms}", initialDelayString = "${app.reminders.refill-interval-ms}")
+    public void extendHorizon() {
+        long from;
+        long until = System.currentTimeMillis() + Duration.ofHours(horizonHours).toMillis();
+        synchronized (this) {
+            from = loadedUntil;
+            if (until <= from) {
+                return;
+            }
+            // Changes from here on schedule their own reminders, and win over what the load reads
+            loadedUntil = until;
+        }
+
+        long start = System.currentTimeMillis();
+        long[] loaded = {0};
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Reminder> reminders = taskRepository.streamOpenDueBetween(
+                    toLocal(from).toLocalDate(), toLocal(until).toLocalDate())) {
+                reminders.forEach(reminder -> {
+                    long due = reminder.dueMillis(zone);
+                    if (due > from && due <= until) {
+                        synchronized (this) {
+                            if (!timeouts.containsKey(reminder.taskId())) {
+                                timeouts.put(reminder.taskId(), wheel.schedule(reminder, due));
+                                loaded[0]++;
+                            }
+                        }
+                    }
+                });
+            }
+        });
+        logger.info("Loaded {} task reminders due until {} in {} ms", loaded[0], toLocal(until),
+                System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), reminder -> {
+                timeouts.remove(reminder.taskId());
+                due.add(reminder);
+            });
+        }
+        if (!due.isEmpty()) {
+            taskReminderSender.send(due);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        Reminder reminder = event.after() == null ? null : Reminder.of(event.after());
+        synchronized (this) {
+            TimingWheel.Timeout<Reminder> previous = timeouts.remove(event.taskId());
+            if (previous != null) {
+                wheel.cancel(previous);
+            }
+            if (reminder == null) {
+                return;
+            }
+            long due = reminder.dueMillis(zone);
+            if (due > System.currentTimeMillis() && due <= loadedUntil) {
+                timeouts.put(reminder.taskId(), wheel.schedule(reminder, due));
+            }
+        }
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    private LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+}
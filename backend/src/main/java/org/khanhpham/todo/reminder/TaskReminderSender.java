@@ -0,0 +1,90 @@
+package org.khanhpham.todo.reminder;
+
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the reminders that fired. Every node schedules every reminder, so each one is first claimed
+ * with a conditional update of its task: only the node whose update matched sends it, and reminders for
+ * tasks that were completed, moved or deleted after they were scheduled match nothing. The claims and
+ * the queued emails of a batch commit together, and every user gets a single email listing all of their
+ * claimed tasks in the batch.
+ */
+@Component
+public class TaskReminderSender {
+    private static final Logger logger = LoggerFactory.getLogger(TaskReminderSender.class);
+
+    private final TaskRepository taskRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.reminders.batch-size}")
+    private int batchSize;
+
+    public TaskReminderSender(TaskRepository taskRepository, EmailService emailService,
+                              PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void send(List<Reminder> reminders) {
+        for (int from = 0; from < reminders.size(); from += batchSize) {
+            List<Reminder> batch = reminders.subList(from, Math.min(from + batchSize, reminders.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> sendBatch(batch));
+            } catch (RuntimeException e) {
+                logger.error("Could not send {} task reminders", batch.size(), e);
+            }
+        }
+    }
+
+    private void sendBatch(List<Reminder> batch) {
+        Map<Long, Reminder> remindersByTask = batch.stream()
+                .collect(Collectors.toMap(Reminder::taskId, Function.identity(), (first, second) -> second));
+        List<Long> claimed = new ArrayList<>();
+        remindersByTask.values().forEach(reminder -> {
+            if (taskRepository.claimReminder(reminder.taskId(), reminder.date(), reminder.time(),
+                    reminder.date().atTime(reminder.time())) == 1) {
+                claimed.add(reminder.taskId());
+            }
+        });
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<ReminderTarget>> targetsByEmail = taskRepository.findReminderTargets(claimed)
+                .stream()
+                .collect(Collectors.groupingBy(ReminderTarget::email, LinkedHashMap::new, Collectors.toList()));
+
+        targetsByEmail.forEach((email, targets) -> emailService.sendEmail(email, subject(targets), content(targets)));
+    }
+
+    private static String subject(List<ReminderTarget> targets) {
+        return targets.size() == 1
+                ? "Reminder: " + targets.get(0).title()
+                : "Reminder: " + targets.size() + " tasks are due";
+    }
+
+    private static String content(List<ReminderTarget> targets) {
+        StringBuilder content = new StringBuilder("The following tasks are due:\n\n");
+        for (ReminderTarget target : targets) {
+            content.append("- ").append(target.title())
+                    .append(" (").append(target.date()).append(' ').append(target.time()).append(")\n");
+        }
+        return content.toString();
+    }
+}
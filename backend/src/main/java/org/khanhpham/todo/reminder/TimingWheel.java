@@ -0,0 +1,200 @@
+package org.khanhpham.todo.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel in the style of the classic Linux kernel timers. Four levels of 64 slots
+ * cover 64<sup>4</sup> ticks; a timeout is put in the level whose span fits its distance from now and
+ * is moved one level down each time the lower level wraps around, so it is handled at most once per
+ * level. Scheduling and cancelling are O(1): every slot is a doubly-linked list and a timeout knows the
+ * slot it is in. Timeouts further away than the wheel covers wait in the top level and are placed again
+ * when it cascades.
+ * <p>
+ * Not thread-safe; callers must synchronize.
+ *
+ * @param <T> the value carried by a timeout
+ */
+public class TimingWheel<T> {
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Slot<T>[][] wheels;
+    /**
+     * The next tick to be processed.
+     */
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Slot[LEVELS][1 << SLOT_BITS];
+        for (Slot<T>[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Slot<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules a value to expire at the first tick at or after the deadline. A deadline in the past
+     * expires on the next {@link #advance}.
+     *
+     * @param value          the value handed back on expiry
+     * @param deadlineMillis the deadline in epoch milliseconds
+     * @return the handle to cancel the timeout with
+     */
+    public Timeout<T> schedule(T value, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(value, Math.ceilDiv(deadlineMillis, tickMillis));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout that has neither expired nor been cancelled yet.
+     *
+     * @return {@code true} if the timeout was pending
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to the given time and hands the values of the expired timeouts to the
+     * consumer, in deadline order.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @param expired   receives the value of every expired timeout
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick <= target) {
+            int index = (int) (currentTick & SLOT_MASK);
+            if (index == 0) {
+                cascade();
+            }
+            Slot<T> slot = wheels[0][index];
+            Timeout<T> timeout;
+            while ((timeout = slot.poll()) != null) {
+                if (timeout.deadlineTick <= currentTick) {
+                    size--;
+                    expired.accept(timeout.value);
+                } else {
+                    place(timeout);
+                }
+            }
+            currentTick++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves the timeouts of the slot the current tick has just entered down one level, continuing to
+     * the next level up whenever that level wraps around too.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+            Slot<T> slot = wheels[level][index];
+            Timeout<T> timeout;
+            while ((timeout = slot.poll()) != null) {
+                place(timeout);
+            }
+            if (index != 0) {
+                return;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long expires = timeout.deadlineTick;
+        long delta = expires - currentTick;
+        if (delta < 0) {
+            expires = currentTick;
+            delta = 0;
+        } else if (delta > MAX_DELTA) {
+            expires = currentTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int index = (int) ((expires >> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels[level][index].add(timeout);
+    }
+
+    /**
+     * A scheduled value, linked into the slot it waits in.
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T value() {
+            return value;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
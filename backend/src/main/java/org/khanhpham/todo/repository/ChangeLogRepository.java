@@ -0,0 +1,23 @@
+package org.khanhpham.todo.repository;
+
+import org.khanhpham.todo.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    @Query("SELECT e FROM ChangeLogEntry e WHERE e.id > :after ORDER BY e.id")
+    List<ChangeLogEntry> findAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM ChangeLogEntry e")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.createdDate < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,41 @@
+package org.khanhpham.todo.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.khanhpham.todo.common.EmailStatus;
+import org.khanhpham.todo.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    /**
+     * Locks the emails that are due: pending ones whose retry time has come, and ones being sent whose
+     * claim ran out because the node sending them went away. Rows locked by another node are skipped
+     * ({@code SKIP LOCKED}), so several nodes can drain the outbox side by side.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status IN (org.khanhpham.todo.common.EmailStatus.PENDING, " +
+            "org.khanhpham.todo.common.EmailStatus.SENDING) AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<EmailOutbox> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Records a failed delivery, provided the email is still held under the claim it was sent with. If that
+     * claim ran out and another node claimed the email again, nothing is written and 0 is returned.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, e.lastError = :lastError, " +
+            "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id " +
+            "AND e.status = org.khanhpham.todo.common.EmailStatus.SENDING AND e.nextAttemptAt = :leaseUntil")
+    int recordFailure(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("status") EmailStatus status, @Param("attempts") int attempts,
+                      @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
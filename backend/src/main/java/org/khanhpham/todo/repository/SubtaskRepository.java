@@ -0,0 +1,25 @@
+package org.khanhpham.todo.repository;
+
+import org.khanhpham.todo.entity.Subtask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SubtaskRepository extends JpaRepository<Subtask, Long> {
+    @Query("SELECT s FROM Subtask s WHERE s.taskId IN :taskIds ORDER BY s.taskId, s.position, s.id")
+    List<Subtask> findByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM Subtask s WHERE s.taskId IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM Subtask s WHERE s.taskId IN " +
+            "(SELECT t.id FROM Task t WHERE t.id IN :taskIds AND t.deletedDate < :cutoff)")
+    int deleteOfTasksTrashedBefore(@Param("taskIds") Collection<Long> taskIds, @Param("cutoff") LocalDateTime cutoff);
+}
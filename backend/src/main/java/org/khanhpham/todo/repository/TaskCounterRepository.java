@@ -0,0 +1,21 @@
+package org.khanhpham.todo.repository;
+
+import jakarta.persistence.LockModeType;
+import org.khanhpham.todo.entity.TaskCounter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TaskCounter c WHERE c.userId = :userId")
+    Optional<TaskCounter> findForUpdate(@Param("userId") Long userId);
+
+    @Query("SELECT c.userId FROM TaskCounter c WHERE c.userId > :after ORDER BY c.userId")
+    List<Long> findUserIdsAfter(@Param("after") Long after, Pageable pageable);
+}
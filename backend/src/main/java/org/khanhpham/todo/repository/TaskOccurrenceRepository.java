@@ -0,0 +1,36 @@
+package org.khanhpham.todo.repository;
+
+import org.khanhpham.todo.entity.TaskOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskOccurrenceRepository extends JpaRepository<TaskOccurrence, Long> {
+    Optional<TaskOccurrence> findByTaskIdAndOccurrenceDate(Long taskId, LocalDate occurrenceDate);
+
+    @Query("SELECT o FROM TaskOccurrence o WHERE o.taskId IN :taskIds " +
+            "AND ((o.occurrenceDate >= :from AND o.occurrenceDate <= :to) OR (o.date >= :from AND o.date <= :to))")
+    List<TaskOccurrence> findBetween(@Param("taskIds") Collection<Long> taskIds,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM TaskOccurrence o WHERE o.taskId = :taskId AND o.occurrenceDate = :occurrenceDate")
+    int deleteByTaskIdAndOccurrenceDate(@Param("taskId") Long taskId, @Param("occurrenceDate") LocalDate occurrenceDate);
+
+    @Modifying
+    @Query("DELETE FROM TaskOccurrence o WHERE o.taskId IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM TaskOccurrence o WHERE o.taskId IN " +
+            "(SELECT t.id FROM Task t WHERE t.id IN :taskIds AND t.deletedDate < :cutoff)")
+    int deleteOfTasksTrashedBefore(@Param("taskIds") Collection<Long> taskIds, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,180 @@
 package org.khanhpham.todo.repository;
 
+import jakarta.persistence.QueryHint;
+import org.khanhpham.todo.common.RecurrenceFrequency;
 import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.reminder.Reminder;
+import org.khanhpham.todo.reminder.ReminderTarget;
+import org.khanhpham.todo.repository.projection.TaskCounts;
+import org.khanhpham.todo.repository.projection.TaskDayCount;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+import org.khanhpham.todo.search.TaskSearchRow;
+import org.khanhpham.todo.tag.TaskFlagRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findTaskByUserId(Long userId);
-    List<Task> findByUserIdAndIsCompleted(Long userId, boolean isCompleted);
-    List<Task> findByUserIdAndIsImportant(Long userId, boolean isImportant);
-}
\ No newline at end of file
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+    // Tasks in the trash have a deleted date, and every query over live tasks filters on it being null
+
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL")
+    List<Task> findTaskByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL AND t.isCompleted = :isCompleted")
+    List<Task> findByUserIdAndIsCompleted(@Param("userId") Long userId, @Param("isCompleted") boolean isCompleted);
+
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL AND t.isImportant = :isImportant")
+    List<Task> findByUserIdAndIsImportant(@Param("userId") Long userId, @Param("isImportant") boolean isImportant);
+
+    @Query("SELECT t FROM Task t WHERE t.id IN :ids AND t.user.id = :userId AND t.deletedDate IS NULL")
+    List<Task> findByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Query("SELECT t FROM Task t WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL")
+    Optional<Task> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT new org.khanhpham.todo.repository.projection.TaskCounts(COUNT(t), " +
+            "SUM(CASE WHEN t.isCompleted = true THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN t.isImportant = true THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN t.isCompleted = false AND t.date < :today THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN t.isCompleted = false AND t.date = :today THEN 1L ELSE 0L END)) " +
+            "FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL")
+    TaskCounts countByUser(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL AND t.isCompleted = false " +
+            "AND t.date >= :from AND t.date < :to")
+    long countOpenBetween(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL " +
+            "AND t.date >= :from AND t.date <= :to AND t.recurrenceFrequency IS NULL ORDER BY t.date, t.time, t.id")
+    List<TaskProjection> findAgenda(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new org.khanhpham.todo.repository.projection.TaskDayCount(t.date, COUNT(t)) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.deletedDate IS NULL AND t.date >= :from AND t.date < :to " +
+            "AND t.recurrenceFrequency IS NULL GROUP BY t.date ORDER BY t.date")
+    List<TaskDayCount> countPerDay(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recurring tasks with occurrences that may fall between two days, both inclusive: those whose rule
+     * overlaps the range, found through the {@code (user_id, deleted_date, recurrence_frequency, recurrence_end)}
+     * index, and those with an occurrence moved into the range from outside their rule's range, found through
+     * the {@code (user_id, date)} index of the exceptions. There is one row per rule.
+     */
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL AND t.recurrenceFrequency IS NOT NULL " +
+            "AND (((t.recurrenceEnd IS NULL OR t.recurrenceEnd >= :from) AND t.date <= :to) " +
+            "OR t.id IN (SELECT o.taskId FROM TaskOccurrence o WHERE o.userId = :userId AND o.date >= :from AND o.date <= :to))")
+    List<Task> findRecurringBetween(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    @Query("SELECT new org.khanhpham.todo.reminder.Reminder(t.id, t.user.id, t.date, t.time) FROM Task t " +
+            "WHERE t.isCompleted = false AND t.deletedDate IS NULL AND t.date >= :from AND t.date <= :to " +
+            "AND t.time IS NOT NULL")
+    Stream<Reminder> streamOpenDueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new org.khanhpham.todo.reminder.ReminderTarget(t.id, t.title, t.date, t.time, u.email) " +
+            "FROM Task t JOIN t.user u WHERE t.id IN :ids AND t.isCompleted = false AND t.deletedDate IS NULL")
+    List<ReminderTarget> findReminderTargets(@Param("ids") Collection<Long> ids);
+
+    // Returns 1 only to the first caller for a due time, and 0 if the task was completed, moved or deleted
+    @Modifying
+    @Query("UPDATE Task t SET t.remindedFor = :due " +
+            "WHERE t.id = :id AND t.date = :date AND t.time = :time AND t.isCompleted = false AND t.deletedDate IS NULL " +
+            "AND (t.remindedFor IS NULL OR t.remindedFor <> :due)")
+    int claimReminder(@Param("id") Long id, @Param("date") LocalDate date, @Param("time") LocalTime time,
+                      @Param("due") LocalDateTime due);
+
+    // Single-statement mutations scoped to the owner; they bypass the persistence context, so they bump the version themselves
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.title = :title, t.description = :description, t.date = :date, t.time = :time, " +
+            "t.recurrenceFrequency = :frequency, t.recurrenceInterval = :interval, t.recurrenceDays = :days, " +
+            "t.recurrenceUntil = :until, t.recurrenceCount = :count, t.recurrenceEnd = :end, " +
+            "t.updatedDate = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL AND t.version = :version")
+    int updateIfVersion(@Param("id") Long id, @Param("userId") Long userId, @Param("version") long version,
+                        @Param("title") String title, @Param("description") String description,
+                        @Param("date") LocalDate date, @Param("time") LocalTime time,
+                        @Param("frequency") RecurrenceFrequency frequency, @Param("interval") Integer interval,
+                        @Param("days") Integer days, @Param("until") LocalDate until, @Param("count") Integer count,
+                        @Param("end") LocalDate end, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.isCompleted = :value, t.updatedDate = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL AND t.isCompleted <> :value")
+    int updateCompleted(@Param("id") Long id, @Param("userId") Long userId,
+                        @Param("value") boolean value, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.isImportant = :value, t.updatedDate = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL AND t.isImportant <> :value")
+    int updateImportant(@Param("id") Long id, @Param("userId") Long userId,
+                        @Param("value") boolean value, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.deletedDate = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL")
+    int moveToTrash(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.deletedDate = NULL, t.updatedDate = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NOT NULL")
+    int restoreFromTrash(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NULL")
+    Optional<TaskProjection> findProjectionByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.id = :id AND t.user.id = :userId AND t.deletedDate IS NOT NULL")
+    Optional<TaskProjection> findTrashedProjectionByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NOT NULL " +
+            "ORDER BY t.deletedDate DESC, t.id DESC")
+    List<TaskProjection> findTrash(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT t.id FROM Task t WHERE t.deletedDate < :cutoff ORDER BY t.deletedDate")
+    List<Long> findIdsTrashedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.deletedDate < :cutoff")
+    long countTrashedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Rechecks the cutoff, so a task restored, or restored and trashed again, since its ID was read is kept
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.deletedDate < :cutoff")
+    int deleteTrashed(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.id IN :ids AND t.user.id = :userId AND t.deletedDate IS NULL")
+    List<TaskProjection> findProjectionsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.id IN :ids AND t.deletedDate IS NULL")
+    List<TaskProjection> findProjectionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(TaskProjection.SELECT + "FROM Task t WHERE t.user.id = :userId AND t.deletedDate IS NULL " +
+            "AND t.updatedDate > :since AND t.updatedDate <= :until ORDER BY t.updatedDate, t.id")
+    List<TaskProjection> findChangedBetween(@Param("userId") Long userId,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("until") LocalDateTime until);
+
+    /**
+     * Rows fetched per round trip by streaming queries. With {@code useCursorFetch} on the JDBC URL
+     * MySQL serves them from a server-side cursor instead of buffering the whole result on the client.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    @Query("SELECT new org.khanhpham.todo.search.TaskSearchRow(t.id, t.user.id, t.title, t.description) FROM Task t " +
+            "WHERE t.deletedDate IS NULL")
+    Stream<TaskSearchRow> streamSearchRows();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    @Query("SELECT new org.khanhpham.todo.tag.TaskFlagRow(t.id, t.user.id, t.isCompleted, t.isImportant) FROM Task t " +
+            "WHERE t.deletedDate IS NULL")
+    Stream<TaskFlagRow> streamFlagRows();
+}
@@ -0,0 +1,33 @@
+package org.khanhpham.todo.repository;
+
+import org.khanhpham.todo.common.TaskCursor;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TaskRepositoryCustom {
+    /**
+     * Runs a single query combining every criterion set on {@code filter}, seeking past {@code after}
+     * in the requested sort order.
+     *
+     * @param userId the owner of the tasks
+     * @param filter the criteria to combine
+     * @param after  the cursor to resume after, or {@code null} for the first page
+     * @param limit  the maximum number of rows to return
+     * @return the matching tasks ordered by date, time and id
+     */
+    List<TaskProjection> findTasks(Long userId, TaskFilterRequest filter, TaskCursor after, int limit);
+
+    /**
+     * Runs the same query as {@link #findTasks} without a limit, reading rows through a forward-only
+     * database cursor. The stream must be consumed inside a transaction and closed afterwards;
+     * closing it early abandons the rest of the result.
+     *
+     * @param userId the owner of the tasks
+     * @param filter the criteria to combine
+     * @return the matching tasks ordered by date, time and id
+     */
+    Stream<TaskProjection> streamTasks(Long userId, TaskFilterRequest filter);
+}
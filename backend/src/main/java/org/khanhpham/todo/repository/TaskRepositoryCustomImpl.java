@@ -0,0 +1,141 @@
+package org.khanhpham.todo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.khanhpham.todo.common.TaskCursor;
+import org.khanhpham.todo.common.TaskSortOrder;
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds task queries dynamically with the Criteria API. Only the criteria that are set end up in the
+ * WHERE clause, so each combination is a single statement the optimizer can match against the
+ * {@code user_id}-prefixed indexes declared on {@link Task}. Rows are selected into {@link TaskProjection}s,
+ * so no entity, and in particular no {@code User}, is hydrated.
+ */
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    private static final char LIKE_ESCAPE = '\\';
+    private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskProjection> findTasks(Long userId, TaskFilterRequest filter, TaskCursor after, int limit) {
+        return entityManager.createQuery(buildQuery(userId, filter, after))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TaskProjection> streamTasks(Long userId, TaskFilterRequest filter) {
+        return entityManager.createQuery(buildQuery(userId, filter, null))
+                .setHint(FETCH_SIZE_HINT, Integer.parseInt(TaskRepository.STREAM_FETCH_SIZE))
+                .getResultStream();
+    }
+
+    private CriteriaQuery<TaskProjection> buildQuery(Long userId, TaskFilterRequest filter, TaskCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskProjection> query = cb.createQuery(TaskProjection.class);
+        Root<Task> task = query.from(Task.class);
+
+        boolean descending = filter.getSort() == TaskSortOrder.DATE_DESC;
+        List<Predicate> predicates = buildPredicates(cb, task, userId, filter);
+        if (after != null) {
+            predicates.add(seekPredicate(cb, task, after, descending));
+        }
+
+        return query.select(cb.construct(TaskProjection.class,
+                        task.get("id"), task.get("title"), task.get("description"), task.get("date"), task.get("time"),
+                        task.get("isCompleted"), task.get("isImportant"), task.get("user").get("id"),
+                        task.get("createdDate"), task.get("updatedDate"), task.get("version"), task.get("deletedDate"),
+                        task.get("recurrenceFrequency"), task.get("recurrenceInterval"), task.get("recurrenceDays"),
+                        task.get("recurrenceUntil"), task.get("recurrenceCount")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(descending
+                        ? List.of(cb.desc(task.get("date")), cb.desc(task.get("time")), cb.desc(task.get("id")))
+                        : List.of(cb.asc(task.get("date")), cb.asc(task.get("time")), cb.asc(task.get("id"))));
+    }
+
+    private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Task> task, Long userId, TaskFilterRequest filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("user").get("id"), userId));
+        predicates.add(cb.isNull(task.get("deletedDate")));
+
+        if (filter.getCompleted() != null) {
+            predicates.add(cb.equal(task.get("isCompleted"), filter.getCompleted()));
+        }
+        if (filter.getImportant() != null) {
+            predicates.add(cb.equal(task.get("isImportant"), filter.getImportant()));
+        }
+
+        Path<LocalDate> date = task.get("date");
+        if (filter.getDateFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filter.getDateFrom()));
+        }
+        if (filter.getDateTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, filter.getDateTo()));
+        }
+
+        Path<LocalTime> time = task.get("time");
+        LocalTime timeFrom = filter.getTimeFrom();
+        LocalTime timeTo = filter.getTimeTo();
+        if (timeFrom != null && timeTo != null && timeFrom.isAfter(timeTo)) {
+            predicates.add(cb.or(cb.greaterThanOrEqualTo(time, timeFrom), cb.lessThanOrEqualTo(time, timeTo)));
+        } else {
+            if (timeFrom != null) {
+                predicates.add(cb.greaterThanOrEqualTo(time, timeFrom));
+            }
+            if (timeTo != null) {
+                predicates.add(cb.lessThanOrEqualTo(time, timeTo));
+            }
+        }
+
+        if (filter.getTitle() != null && !filter.getTitle().isEmpty()) {
+            predicates.add(cb.like(task.get("title"), escapeLike(filter.getTitle()) + "%", LIKE_ESCAPE));
+        }
+        return predicates;
+    }
+
+    /**
+     * Keyset predicate that positions the query strictly after (or before, when descending) the cursor.
+     */
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Task> task, TaskCursor after, boolean descending) {
+        Path<LocalDate> date = task.get("date");
+        Path<LocalTime> time = task.get("time");
+        Path<Long> id = task.get("id");
+        if (descending) {
+            return cb.or(
+                    cb.lessThan(date, after.date()),
+                    cb.and(cb.equal(date, after.date()), cb.lessThan(time, after.time())),
+                    cb.and(cb.equal(date, after.date()), cb.equal(time, after.time()), cb.lessThan(id, after.id())));
+        }
+        return cb.or(
+                cb.greaterThan(date, after.date()),
+                cb.and(cb.equal(date, after.date()), cb.greaterThan(time, after.time())),
+                cb.and(cb.equal(date, after.date()), cb.equal(time, after.time()), cb.greaterThan(id, after.id())));
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package org.khanhpham.todo.repository;
+
+import jakarta.persistence.QueryHint;
+import org.khanhpham.todo.entity.TaskTag;
+import org.khanhpham.todo.tag.TaskTagRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TaskTagRepository extends JpaRepository<TaskTag, Long> {
+    @Query("SELECT g FROM TaskTag g WHERE g.taskId IN :taskIds ORDER BY g.taskId, g.name")
+    List<TaskTag> findByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM TaskTag g WHERE g.taskId IN :taskIds")
+    int deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("DELETE FROM TaskTag g WHERE g.taskId IN " +
+            "(SELECT t.id FROM Task t WHERE t.id IN :taskIds AND t.deletedDate < :cutoff)")
+    int deleteOfTasksTrashedBefore(@Param("taskIds") Collection<Long> taskIds, @Param("cutoff") LocalDateTime cutoff);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = TaskRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT new org.khanhpham.todo.tag.TaskTagRow(g.taskId, g.userId, g.name) FROM TaskTag g")
+    Stream<TaskTagRow> streamTagRows();
+}
@@ -0,0 +1,26 @@
+package org.khanhpham.todo.repository;
+
+import org.khanhpham.todo.entity.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+    @Query("SELECT t.taskId FROM TaskTombstone t WHERE t.userId = :userId " +
+            "AND t.deletedDate > :since AND t.deletedDate <= :until ORDER BY t.deletedDate")
+    List<Long> findTaskIdsDeletedBetween(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("DELETE FROM TaskTombstone t WHERE t.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query("DELETE FROM TaskTombstone t WHERE t.deletedDate < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
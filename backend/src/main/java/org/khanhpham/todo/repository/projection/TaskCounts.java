@@ -0,0 +1,8 @@
+package org.khanhpham.todo.repository.projection;
+
+/**
+ * Counts of a user's tasks computed from the {@code tasks} table, used to initialize and reconcile
+ * the stored counters. The sums are {@code null} when the user has no tasks.
+ */
+public record TaskCounts(Long total, Long completed, Long important, Long overdue, Long dueToday) {
+}
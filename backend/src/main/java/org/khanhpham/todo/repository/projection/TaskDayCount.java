@@ -0,0 +1,9 @@
+package org.khanhpham.todo.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Number of tasks of a user dated on one day.
+ */
+public record TaskDayCount(LocalDate date, long count) {
+}
@@ -0,0 +1,39 @@
+package org.khanhpham.todo.repository.projection;
+
+import org.khanhpham.todo.common.RecurrenceFrequency;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Read-only view of a task selected straight from the {@code tasks} columns.
+ * The owner is carried as the {@code user_id} foreign key, so no {@code User} is ever loaded.
+ */
+public record TaskProjection(
+        Long id,
+        String title,
+        String description,
+        LocalDate date,
+        LocalTime time,
+        boolean isCompleted,
+        boolean isImportant,
+        Long userId,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate,
+        long version,
+        LocalDateTime deletedDate,
+        RecurrenceFrequency recurrenceFrequency,
+        Integer recurrenceInterval,
+        Integer recurrenceDays,
+        LocalDate recurrenceUntil,
+        Integer recurrenceCount) {
+
+    /**
+     * JPQL select list matching the canonical constructor, for a {@code Task} aliased {@code t}.
+     */
+    public static final String SELECT = "SELECT new org.khanhpham.todo.repository.projection.TaskProjection(" +
+            "t.id, t.title, t.description, t.date, t.time, t.isCompleted, t.isImportant, t.user.id, " +
+            "t.createdDate, t.updatedDate, t.version, t.deletedDate, t.recurrenceFrequency, t.recurrenceInterval, " +
+            "t.recurrenceDays, t.recurrenceUntil, t.recurrenceCount) ";
+}
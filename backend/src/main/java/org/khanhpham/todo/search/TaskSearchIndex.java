@@ -0,0 +1,119 @@
+package org.khanhpham.todo.search;
+
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process full-text index over task titles and descriptions, partitioned per user.
+ * It is kept current from {@link TaskChangedEvent}s and rebuilt at startup by {@link TaskSearchIndexLoader}.
+ */
+@Component
+public class TaskSearchIndex {
+    private static final double PREFIX_FACTOR = 0.5;
+
+    @Value("${app.tasks.search.max-prefix-expansions}")
+    private int maxPrefixExpansions;
+
+    private volatile Map<Long, UserSearchIndex> indexes = new ConcurrentHashMap<>();
+
+    // Non-null only while a rebuild is running
+    private volatile Map<Long, UserSearchIndex> rebuilding;
+    private volatile Set<Long> touchedDuringRebuild;
+
+    /**
+     * Applies a task mutation to the index.
+     *
+     * @param event the mutation published by the task service
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskDTO after = event.after();
+        synchronized (this) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(event.taskId());
+            }
+            if (after == null) {
+                remove(indexes, event.userId(), event.taskId());
+                if (rebuilding != null) {
+                    remove(rebuilding, event.userId(), event.taskId());
+                }
+            } else {
+                put(indexes, event.userId(), event.taskId(), after.getTitle(), after.getDescription());
+                if (rebuilding != null) {
+                    put(rebuilding, event.userId(), event.taskId(), after.getTitle(), after.getDescription());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the user's tasks whose title or description contain every term of the query,
+     * matching the terms exactly or as prefixes.
+     *
+     * @param userId the owner of the tasks
+     * @param query  the free-text query
+     * @param limit  the maximum number of task IDs to return
+     * @return the matching task IDs, best match first
+     */
+    public List<Long> search(Long userId, String query, int limit) {
+        UserSearchIndex index = indexes.get(userId);
+        List<String> terms = SearchTokenizer.tokenize(query);
+        if (index == null || terms.isEmpty()) {
+            return List.of();
+        }
+        return index.score(terms.stream().distinct().toList(), PREFIX_FACTOR, maxPrefixExpansions)
+                .entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    synchronized void beginRebuild() {
+        rebuilding = new ConcurrentHashMap<>();
+        touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    }
+
+    void load(TaskSearchRow row) {
+        Map<Long, UserSearchIndex> target = rebuilding;
+        Set<Long> touched = touchedDuringRebuild;
+        // A task changed by a request since the rebuild started is already current in the new index
+        if (target != null && !touched.contains(row.id())) {
+            put(target, row.userId(), row.id(), row.title(), row.description());
+        }
+    }
+
+    synchronized void finishRebuild() {
+        indexes = rebuilding;
+        rebuilding = null;
+        touchedDuringRebuild = null;
+    }
+
+    synchronized void abortRebuild() {
+        rebuilding = null;
+        touchedDuringRebuild = null;
+    }
+
+    private static void put(Map<Long, UserSearchIndex> target, Long userId, Long taskId, String title, String description) {
+        target.computeIfAbsent(userId, id -> new UserSearchIndex()).put(taskId, title, description);
+    }
+
+    private static void remove(Map<Long, UserSearchIndex> target, Long userId, Long taskId) {
+        UserSearchIndex index = target.get(userId);
+        if (index != null) {
+            index.remove(taskId);
+        }
+    }
+}
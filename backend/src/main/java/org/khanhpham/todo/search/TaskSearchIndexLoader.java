@@ -0,0 +1,48 @@
+package org.khanhpham.todo.search;
+
+import org.khanhpham.todo.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the {@link TaskSearchIndex} from the {@code tasks} table once the application has started.
+ * Rows are streamed through a forward-only cursor as plain projections, so the pass never holds more
+ * than one fetch of rows nor grows the persistence context.
+ */
+@Component
+public class TaskSearchIndexLoader {
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchIndexLoader.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskSearchIndex taskSearchIndex;
+
+    public TaskSearchIndexLoader(TaskRepository taskRepository, TaskSearchIndex taskSearchIndex) {
+        this.taskRepository = taskRepository;
+        this.taskSearchIndex = taskSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        taskSearchIndex.beginRebuild();
+        try (Stream<TaskSearchRow> rows = taskRepository.streamSearchRows()) {
+            for (TaskSearchRow row : (Iterable<TaskSearchRow>) rows::iterator) {
+                taskSearchIndex.load(row);
+                count++;
+            }
+            taskSearchIndex.finishRebuild();
+        } catch (RuntimeException e) {
+            taskSearchIndex.abortRebuild();
+            throw e;
+        }
+        logger.info("Indexed {} tasks for search in {} ms", count, System.currentTimeMillis() - start);
+    }
+}
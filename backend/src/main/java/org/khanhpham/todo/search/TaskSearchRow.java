@@ -0,0 +1,7 @@
+package org.khanhpham.todo.search;
+
+/**
+ * The columns of a task the search index needs, read without hydrating entities.
+ */
+public record TaskSearchRow(Long id, Long userId, String title, String description) {
+}
@@ -0,0 +1,97 @@
+package org.khanhpham.todo.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the tasks of one user. Terms are kept sorted so prefix lookups are a range
+ * scan, and a forward map remembers the terms of every task so it can be re-indexed or removed
+ * without knowing its previous content. All methods are guarded by the instance monitor.
+ */
+final class UserSearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> termsByTask = new HashMap<>();
+
+    synchronized void put(Long taskId, String title, String description) {
+        removeInternal(taskId);
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : SearchTokenizer.tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : SearchTokenizer.tokenize(description)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            return;
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(taskId, weight));
+        termsByTask.put(taskId, weights);
+    }
+
+    synchronized void remove(Long taskId) {
+        removeInternal(taskId);
+    }
+
+    synchronized boolean isEmpty() {
+        return termsByTask.isEmpty();
+    }
+
+    /**
+     * Scores the tasks matching every query term, either exactly or by prefix.
+     *
+     * @param terms         the tokenized query
+     * @param prefixFactor  the share of the score a prefix match earns compared with an exact match
+     * @param maxExpansions the maximum number of index terms a single prefix may expand to
+     * @return the score of every matching task
+     */
+    synchronized Map<Long, Double> score(List<String> terms, double prefixFactor, int maxExpansions) {
+        int documents = termsByTask.size();
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Integer>> entry : postings.tailMap(term, true).entrySet()) {
+                String indexed = entry.getKey();
+                if (!indexed.startsWith(term) || expansions++ >= maxExpansions) {
+                    break;
+                }
+                Map<Long, Integer> postingList = entry.getValue();
+                double idf = Math.log(1.0 + (double) documents / postingList.size());
+                double factor = indexed.length() == term.length() ? 1.0 : prefixFactor;
+                postingList.forEach((taskId, weight) -> termScores.merge(taskId, weight * idf * factor, Double::sum));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((taskId, score) -> score + termScores.get(taskId));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores == null ? Map.of() : scores;
+    }
+
+    private void removeInternal(Long taskId) {
+        Map<String, Integer> previous = termsByTask.remove(taskId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(taskId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -18,6 +18,8 @@ import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String EVENT_STREAM_PATH = "/tasks/events";
+
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
 
@@ -34,11 +36,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // get JWT tokenValue from http request
         String token = getTokenFromRequest(request);
 
-        // validate tokenValue
-        if(StringUtils.hasText(token) && jwtTokenProvider.validateAccessToken(token)){
+        if(StringUtils.hasText(token)){
 
-            // get username from tokenValue
-            String username = jwtTokenProvider.getIdentityFromAccessToken(token);
+            // validate tokenValue and get username from it in one parse
+            String username = jwtTokenProvider.verifyAccessToken(token);
 
             // load the user associated with tokenValue
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
@@ -65,6 +66,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return bearerToken.substring(7);
         }
 
+        // EventSource cannot send headers, so the task event stream alone also takes the token as a parameter
+        if (request.getRequestURI().endsWith(EVENT_STREAM_PATH)) {
+            return request.getParameter("access_token");
+        }
+
         return null;
     }
 
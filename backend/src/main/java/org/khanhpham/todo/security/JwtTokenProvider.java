@@ -11,47 +11,50 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
 
 @Component
 public class JwtTokenProvider {
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    private final long jwtExpirationMillis;
+    private final long jwtRefreshExpirationMillis;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    @Value("${app.jwt-refresh-secret}")
-    private String jwtRefreshSecret;
-
-    @Value("${app-jwt-expiration-milliseconds}")
-    private long jwtExpirationMillis;
-
-    @Value("${app-jwt-refresh-expiration-milliseconds}")
-    private long jwtRefreshExpirationMillis;
+    // Keys are derived and parsers built once; both are immutable and shared by all requests
+    private final SecretKey accessKey;
+    private final SecretKey refreshKey;
+    private final JwtParser accessParser;
+    private final JwtParser refreshParser;
 
     private static final String INVALID_TOKEN = "Invalid JWT tokenValue";
     private static final String EXPIRED_TOKEN = "Expired JWT tokenValue";
     private static final String UNSUPPORTED_TOKEN = "Unsupported JWT tokenValue";
     private static final String EMPTY_CLAIMS = "JWT claims string is empty";
 
-    private Key accessKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    private Key refreshKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret));
+    public JwtTokenProvider(@Value("${app.jwt-secret}") String jwtSecret,
+                            @Value("${app.jwt-refresh-secret}") String jwtRefreshSecret,
+                            @Value("${app-jwt-expiration-milliseconds}") long jwtExpirationMillis,
+                            @Value("${app-jwt-refresh-expiration-milliseconds}") long jwtRefreshExpirationMillis,
+                            VerifiedTokenCache verifiedTokenCache) {
+        this.jwtExpirationMillis = jwtExpirationMillis;
+        this.jwtRefreshExpirationMillis = jwtRefreshExpirationMillis;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.accessKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.refreshKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret));
+        this.accessParser = Jwts.parser().verifyWith(accessKey).build();
+        this.refreshParser = Jwts.parser().verifyWith(refreshKey).build();
     }
 
     public String generateAccessToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateToken(userPrincipal.getUsername(), jwtExpirationMillis, accessKey());
+        return generateToken(userPrincipal.getUsername(), jwtExpirationMillis, accessKey);
     }
 
     public String generateRefreshToken(String username) {
-        return generateToken(username, jwtRefreshExpirationMillis, refreshKey());
+        return generateToken(username, jwtRefreshExpirationMillis, refreshKey);
     }
 
     // Generate tokenValue (generic)
-    private String generateToken(String username, long expirationMillis, Key key) {
+    private String generateToken(String username, long expirationMillis, SecretKey key) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationMillis);
         return Jwts.builder()
@@ -62,14 +65,10 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    // Validate tokenValue (generic)
-    private boolean validateToken(String token, Key key) {
+    // Verify tokenValue and return its claims in a single parse (generic)
+    private Claims verify(String token, JwtParser parser) {
         try {
-            Jwts.parser()
-                    .verifyWith((SecretKey) key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException e) {
             throw new CustomException(HttpStatus.BAD_REQUEST, INVALID_TOKEN);
         } catch (ExpiredJwtException e) {
@@ -81,33 +80,33 @@ public class JwtTokenProvider {
         }
     }
 
-    // Validate Access Token
-    public boolean validateAccessToken(String token) {
-        return validateToken(token, accessKey());
-    }
-
-    // Validate Refresh Token
-    public boolean validateRefreshToken(String token) {
-        return validateToken(token, refreshKey());
-    }
-
-    // Get identity from tokenValue (generic)
-    private String getIdentityFromToken(String token, Key key) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-
-    // Get identity from Access Token
-    public String getIdentityFromAccessToken(String token) {
-         return getIdentityFromToken(token, accessKey());
+    /**
+     * Verifies an access token and returns the identity it was issued to. Tokens verified before are
+     * answered from the {@link VerifiedTokenCache} until they expire.
+     *
+     * @param token the compact JWT
+     * @return the identity in the token's subject
+     * @throws CustomException if the token is malformed, expired, unsupported or empty
+     */
+    public String verifyAccessToken(String token) {
+        VerifiedTokenCache.Key key = verifiedTokenCache.key(token);
+        String identity = verifiedTokenCache.get(key);
+        if (identity != null) {
+            return identity;
+        }
+        Claims claims = verify(token, accessParser);
+        verifiedTokenCache.put(key, claims.getSubject(), claims.getExpiration());
+        return claims.getSubject();
     }
 
-    // Get identity from Refresh Token
-    public String getIdentityFromRefreshToken(String token) {
-        return getIdentityFromToken(token, refreshKey());
+    /**
+     * Verifies a refresh token and returns the identity it was issued to.
+     *
+     * @param token the compact JWT
+     * @return the identity in the token's subject
+     * @throws CustomException if the token is malformed, expired, unsupported or empty
+     */
+    public String verifyRefreshToken(String token) {
+        return verify(token, refreshParser).getSubject();
     }
 }
@@ -0,0 +1,108 @@
+package org.khanhpham.todo.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the access tokens whose signature was already verified, so a client sending the same
+ * token with every request only pays for one SHA-256 digest instead of an HMAC check and a JSON parse.
+ * <p>
+ * Entries are keyed by the digest of the token, so no usable token is held in memory, and are served
+ * only until the token expires; an expired token misses and goes through full verification, which
+ * rejects it. Beyond the configured number of entries the least recently used is evicted.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final int maxEntries;
+
+    // Guarded by "this"
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry, @Value("${app.jwt-cache-max-entries}") int maxEntries) {
+        this.maxEntries = maxEntries;
+
+        FunctionCounter.builder("auth.token.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("auth.token.cache.entries", this, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache key of a token.
+     *
+     * @param token the compact JWT
+     * @return the SHA-256 digest of the token
+     */
+    public Key key(String token) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new Key(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the subject of a verified token that has not expired yet.
+     *
+     * @param key the key of the token
+     * @return the subject, or {@code null} if the token must be verified
+     */
+    public synchronized String get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return entry.subject();
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Remembers a verified token until its expiry. Tokens without an expiry are not cached.
+     *
+     * @param key        the key of the token
+     * @param subject    the verified subject
+     * @param expiration the expiry of the token, or {@code null}
+     */
+    public synchronized void put(Key key, String subject, Date expiration) {
+        if (expiration == null || subject == null) {
+            return;
+        }
+        entries.put(key, new Entry(subject, expiration.getTime()));
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    public record Key(long a, long b, long c, long d) {
+    }
+
+    private record Entry(String subject, long expiresAt) {
+    }
+}
@@ -3,19 +3,53 @@ package org.khanhpham.todo.service;
 import org.khanhpham.todo.entity.Task;
 import org.khanhpham.todo.payload.dto.TaskDTO;
 import org.khanhpham.todo.payload.request.ChangeTaskStatusRequest;
+import org.khanhpham.todo.payload.request.SubtaskPatchRequest;
+import org.khanhpham.todo.payload.request.SubtaskRequest;
+import org.khanhpham.todo.payload.request.TaskBatchRequest;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.payload.request.TaskOccurrenceRequest;
+import org.khanhpham.todo.payload.request.TaskPatchRequest;
 import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.payload.request.TaskTagQueryRequest;
+import org.khanhpham.todo.payload.response.TaskBatchResponse;
+import org.khanhpham.todo.payload.response.TaskCalendarResponse;
+import org.khanhpham.todo.payload.response.TaskChangesResponse;
+import org.khanhpham.todo.payload.response.TaskPageResponse;
+import org.khanhpham.todo.payload.response.TaskSummaryResponse;
+import org.khanhpham.todo.payload.response.TaskTagCount;
+import org.khanhpham.todo.payload.response.TaskTagQueryResponse;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService {
     TaskDTO createTask(Long userId, TaskRequest taskRequest);
-    TaskDTO updateTask(Long id, TaskRequest taskRequest);
+    TaskDTO updateTask(Long userId, Long id, TaskRequest taskRequest, Long expectedVersion);
+    TaskDTO patchTask(Long userId, Long id, TaskPatchRequest patch, Long expectedVersion);
     Task findTaskById(Long id);
     TaskDTO getTaskByUserIdAndTaskId(Long userId, Long id);
-    List<TaskDTO> getTasksByUserId(Long userId);
+    TaskPageResponse getTasksByUserId(Long userId, String cursor, Integer size);
     List<TaskDTO> getTasksByCompletionStatus(Long userId, boolean isCompleted);
-    void deleteTask(Long id);
+    void deleteTask(Long userId, Long id);
+    TaskDTO restoreTask(Long userId, Long id);
+    List<TaskDTO> getTrash(Long userId, Integer limit);
     List<TaskDTO> getTasksByImportance(Long userId, boolean isImportant);
-    TaskDTO updateTaskStatus(Long id, String property, ChangeTaskStatusRequest request);
-    List<TaskDTO> getTasksByFilter(Long userId, String filterField, boolean filterValue);
+    TaskDTO updateTaskStatus(Long userId, Long id, String property, ChangeTaskStatusRequest request);
+    TaskPageResponse getTasksByFilter(Long userId, TaskFilterRequest filter, String cursor, Integer size);
+    void streamTasks(Long userId, TaskFilterRequest filter, Consumer<TaskDTO> consumer);
+    List<TaskDTO> searchTasks(Long userId, String query, Integer limit);
+    TaskChangesResponse getTaskChanges(Long userId, String since);
+    TaskBatchResponse executeBatch(Long userId, TaskBatchRequest request);
+    TaskSummaryResponse getTaskSummary(Long userId);
+    List<TaskDTO> getAgenda(Long userId, LocalDate from, LocalDate to);
+    TaskCalendarResponse getCalendar(Long userId, YearMonth month);
+    TaskDTO updateOccurrence(Long userId, Long id, LocalDate occurrenceDate, TaskOccurrenceRequest request);
+    void resetOccurrence(Long userId, Long id, LocalDate occurrenceDate);
+    TaskDTO addSubtask(Long userId, Long taskId, SubtaskRequest request);
+    TaskDTO updateSubtask(Long userId, Long taskId, Long subtaskId, SubtaskPatchRequest patch);
+    void deleteSubtask(Long userId, Long taskId, Long subtaskId);
+    TaskTagQueryResponse getTasksByTags(Long userId, TaskTagQueryRequest query, Integer limit);
+    List<TaskTagCount> getTags(Long userId);
 }
@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.khanhpham.todo.common.TokenType;
 import org.khanhpham.todo.entity.User;
 import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.mapper.UserMapper;
 import org.khanhpham.todo.payload.dto.TokenDTO;
 import org.khanhpham.todo.payload.dto.UserDTO;
 import org.khanhpham.todo.payload.request.*;
@@ -12,7 +13,6 @@ import org.khanhpham.todo.payload.response.UserInfoResponse;
 import org.khanhpham.todo.repository.UserRepository;
 import org.khanhpham.todo.security.JwtTokenProvider;
 import org.khanhpham.todo.service.*;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,6 +25,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -46,7 +47,7 @@ import java.util.*;
  * - JwtTokenProvider: For generating and validating JWT tokens.
  * - UserService: For user-related operations, such as fetching or creating users.
  * - EmailService: For sending emails during password reset operations.
- * - ModelMapper: For mapping between entity objects and DTOs.
+ * - UserMapper: For mapping between user entities and DTOs.
  * *
  * The class includes methods to:
  * - Authenticate users with a username or email and password.
@@ -74,12 +75,12 @@ public class AuthServiceImpl implements AuthService {
     private final TokenService tokenService;
     private final EmailService emailService;
     private final UserDetailsService userDetailsService;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     public AuthServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository,
                            PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider,
                            UserService userService, TokenService tokenService, EmailService emailService,
-                            UserDetailsService userDetailsService, ModelMapper modelMapper) {
+                            UserDetailsService userDetailsService, UserMapper userMapper) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
@@ -88,7 +89,7 @@ public class AuthServiceImpl implements AuthService {
         this.tokenService = tokenService;
         this.emailService = emailService;
         this.userDetailsService = userDetailsService;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
     }
 
     /**
@@ -172,12 +173,8 @@ public class AuthServiceImpl implements AuthService {
     public AuthResponse refreshTokens(RefreshTokenRequest refreshTokenRequest) {
         String refreshToken = refreshTokenRequest.getRefreshToken();
 
-        if (!jwtTokenProvider.validateRefreshToken(refreshToken)) {
-            throw new CustomException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh tokenValue.");
-        }
-
-        // Extract identity from refresh tokenValue
-        String identity = jwtTokenProvider.getIdentityFromRefreshToken(refreshToken);
+        // Verify the refresh tokenValue and extract its identity
+        String identity = jwtTokenProvider.verifyRefreshToken(refreshToken);
 
         UserDTO user = userService.findByUsernameOrEmail(identity, identity);
         if (user == null) {
@@ -269,6 +266,7 @@ public class AuthServiceImpl implements AuthService {
      * @throws CustomException if the email does not exist or any internal error occurs.
      */
     @Override
+    @Transactional
     public void forgotPassword(ForgotPasswordRequest forgotPasswordRequest) {
         try {
             String email = forgotPasswordRequest.getEmail();
@@ -355,13 +353,13 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * Converts a User entity to a UserDTO using ModelMapper for data transfer.
+     * Converts a User entity to a UserDTO for data transfer.
      *
      * @param user The user entity.
      * @return UserDTO containing user data.
      */
     private UserDTO convertToDTO(User user) {
-        return modelMapper.map(user, UserDTO.class);
+        return userMapper.toDto(user);
     }
 
     /**
@@ -0,0 +1,225 @@
+package org.khanhpham.todo.service.implement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.khanhpham.todo.common.EmailStatus;
+import org.khanhpham.todo.entity.EmailOutbox;
+import org.khanhpham.todo.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Delivers the emails queued in the outbox. Each poll claims a batch of due emails with
+ * {@code SKIP LOCKED}, marks them as being sent for the length of a lease and hands them in chunks to
+ * a small, bounded pool of workers. A worker sends its whole chunk over one SMTP connection. Accepted
+ * emails are deleted; failed ones are retried with exponential backoff and end up as dead letters after
+ * the configured number of attempts, a claim whose lease ran out counting as a failed attempt. A failure
+ * is only recorded while the email is still held under the lease it was sent with, so a late worker never
+ * overwrites a newer claim of another node. When all workers are busy the poller sends the chunk itself,
+ * which slows down claiming instead of queueing without bound.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+
+    @Value("${app.mail.from}")
+    private String from;
+
+    @Value("${app.mail.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.mail.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-base-seconds}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.mail.outbox.backoff-max-seconds}")
+    private long backoffMaxSeconds;
+
+    @Value("${app.mail.outbox.lease-seconds}")
+    private long leaseSeconds;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository, JavaMailSender javaMailSender,
+                                 TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                 @Value("${app.mail.outbox.workers}") int workers) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.transactionTemplate = transactionTemplate;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+
+        this.sent = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.retried").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dead").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms}")
+    public void dispatch() {
+        List<EmailOutbox> claimed = claim();
+        for (int start = 0; start < claimed.size(); start += chunkSize) {
+            List<EmailOutbox> chunk = claimed.subList(start, Math.min(start + chunkSize, claimed.size()));
+            executor.execute(() -> deliver(chunk));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<EmailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+            // Compared for equality when the delivery is recorded, so kept to a precision every database stores
+            LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MILLIS);
+            List<EmailOutbox> claimed = new ArrayList<>(due.size());
+            for (EmailOutbox email : due) {
+                if (email.getStatus() == EmailStatus.SENDING && !reclaim(email)) {
+                    continue;
+                }
+                email.setStatus(EmailStatus.SENDING);
+                email.setNextAttemptAt(leaseUntil);
+                claimed.add(email);
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Counts an expired claim as a failed attempt: the node sending the email crashed or hung, possibly
+     * because of the email itself, so it must not be retried forever.
+     *
+     * @return whether the email is to be tried again, or {@code false} if it became a dead letter
+     */
+    private boolean reclaim(EmailOutbox email) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError("Delivery did not finish within the lease");
+        if (attempts < maxAttempts) {
+            retried.increment();
+            return true;
+        }
+        email.setStatus(EmailStatus.DEAD);
+        dead.increment();
+        logger.warn("Giving up on email {} to {} after {} attempts: its delivery never finished",
+                email.getId(), email.getRecipient(), attempts);
+        return false;
+    }
+
+    private void deliver(List<EmailOutbox> chunk) {
+        Map<SimpleMailMessage, EmailOutbox> emails = new IdentityHashMap<>();
+        for (EmailOutbox email : chunk) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(from);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getContent());
+            emails.put(message, email);
+        }
+
+        Map<EmailOutbox, Exception> failures = new IdentityHashMap<>();
+        try {
+            javaMailSender.send(emails.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                EmailOutbox email = emails.get(message);
+                if (email != null) {
+                    failures.put(email, cause);
+                }
+            });
+            if (failures.isEmpty()) {
+                chunk.forEach(email -> failures.put(email, e));
+            }
+        } catch (MailException e) {
+            chunk.forEach(email -> failures.put(email, e));
+        }
+
+        try {
+            record(chunk, failures);
+        } catch (RuntimeException e) {
+            // The lease runs out and the chunk is claimed again
+            logger.error("Could not record the delivery of {} emails", chunk.size(), e);
+        }
+    }
+
+    private void record(List<EmailOutbox> chunk, Map<EmailOutbox, Exception> failures) {
+        List<Long> delivered = new ArrayList<>();
+        for (EmailOutbox email : chunk) {
+            if (!failures.containsKey(email)) {
+                delivered.add(email.getId());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutboxRepository.deleteAllByIdInBatch(delivered);
+            LocalDateTime now = LocalDateTime.now();
+            failures.forEach((email, cause) -> {
+                int attempts = email.getAttempts() + 1;
+                boolean giveUp = attempts >= maxAttempts;
+                LocalDateTime leaseUntil = email.getNextAttemptAt();
+                String error = truncate(String.valueOf(cause.getMessage()));
+                int updated = emailOutboxRepository.recordFailure(email.getId(), leaseUntil,
+                        giveUp ? EmailStatus.DEAD : EmailStatus.PENDING, attempts, error,
+                        giveUp ? leaseUntil : now.plusSeconds(backoffSeconds(attempts)));
+                if (updated == 0) {
+                    logger.warn("Not recording the failed delivery of email {}: its lease ran out and it was claimed again",
+                            email.getId());
+                } else if (giveUp) {
+                    dead.increment();
+                    logger.warn("Giving up on email {} to {} after {} attempts: {}",
+                            email.getId(), email.getRecipient(), attempts, cause.getMessage());
+                } else {
+                    retried.increment();
+                }
+            });
+        });
+        sent.increment(delivered.size());
+    }
+
+    private long backoffSeconds(int attempts) {
+        return Math.min(backoffBaseSeconds << Math.min(attempts - 1, 20), backoffMaxSeconds);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
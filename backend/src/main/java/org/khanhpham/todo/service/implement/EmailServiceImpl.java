@@ -1,36 +1,35 @@
 package org.khanhpham.todo.service.implement;
 
+import org.khanhpham.todo.common.EmailStatus;
+import org.khanhpham.todo.entity.EmailOutbox;
+import org.khanhpham.todo.repository.EmailOutboxRepository;
 import org.khanhpham.todo.service.EmailService;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 public class EmailServiceImpl implements EmailService {
-    private final JavaMailSender javaMailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
-    public EmailServiceImpl(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public EmailServiceImpl(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
     /**
-     * Sends an email with the specified recipient, subject, and content.
+     * Queues an email with the specified recipient, subject, and content. The email is written to the
+     * outbox in the caller's transaction, so it is only sent if that transaction commits, and it is
+     * delivered in the background by the {@link EmailOutboxDispatcher}.
      *
      * @param to      the recipient's email address
      * @param subject the subject of the email
      * @param content the content/body of the email
      */
     @Override
+    @Transactional
     public void sendEmail(String to, String subject, String content) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("noreply@khanhpham.com");
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(content);
-            javaMailSender.send(message);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(new EmailOutbox(null, to, subject, content, EmailStatus.PENDING, 0, now, null, now));
     }
 }
@@ -1,20 +1,83 @@
 package org.khanhpham.todo.service.implement;
 
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.common.SyncToken;
+import org.khanhpham.todo.common.TaskCursor;
+import org.khanhpham.todo.common.TaskOperationType;
+import org.khanhpham.todo.counter.TaskCounters;
+import org.khanhpham.todo.entity.Subtask;
 import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.TaskOccurrence;
+import org.khanhpham.todo.entity.TaskTag;
+import org.khanhpham.todo.entity.TaskTombstone;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.exception.ResourceNotFoundException;
+import org.khanhpham.todo.mapper.TaskMapper;
 import org.khanhpham.todo.payload.dto.TaskDTO;
 import org.khanhpham.todo.payload.request.ChangeTaskStatusRequest;
+import org.khanhpham.todo.payload.request.SubtaskPatchRequest;
+import org.khanhpham.todo.payload.request.SubtaskRequest;
+import org.khanhpham.todo.payload.request.TaskBatchRequest;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.payload.request.TaskOccurrenceRequest;
+import org.khanhpham.todo.payload.request.TaskOperationRequest;
+import org.khanhpham.todo.payload.request.TaskPatchRequest;
 import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.payload.request.TaskTagQueryRequest;
+import org.khanhpham.todo.payload.response.TaskBatchResponse;
+import org.khanhpham.todo.payload.response.TaskCalendarResponse;
+import org.khanhpham.todo.payload.response.TaskChangesResponse;
+import org.khanhpham.todo.payload.response.TaskOperationResult;
+import org.khanhpham.todo.payload.response.TaskPageResponse;
+import org.khanhpham.todo.payload.response.TaskSummaryResponse;
+import org.khanhpham.todo.payload.response.TaskTagCount;
+import org.khanhpham.todo.payload.response.TaskTagQueryResponse;
+import org.khanhpham.todo.recurrence.RecurrenceExpander;
+import org.khanhpham.todo.recurrence.RecurrenceRule;
+import org.khanhpham.todo.repository.SubtaskRepository;
+import org.khanhpham.todo.repository.TaskOccurrenceRepository;
 import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.TaskTagRepository;
+import org.khanhpham.todo.repository.TaskTombstoneRepository;
 import org.khanhpham.todo.repository.UserRepository;
+import org.khanhpham.todo.repository.projection.TaskDayCount;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+import org.khanhpham.todo.search.TaskSearchIndex;
 import org.khanhpham.todo.service.TaskService;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.access.AccessDeniedException;
+import org.khanhpham.todo.subtask.SubtaskTree;
+import org.khanhpham.todo.tag.TaskTagIndex;
+import org.khanhpham.todo.tag.TaskTagMatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the TaskService interface that handles task-related operations.
@@ -27,13 +90,59 @@ public class TaskServiceImpl implements TaskService {
     public static final String TASK_NOT_FOUND_MESSAGE = "Task with id {0} not found";
 
     private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final TaskOccurrenceRepository taskOccurrenceRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final TaskTagRepository taskTagRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final TaskMapper taskMapper;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskCounters taskCounters;
+    private final RecurrenceExpander recurrenceExpander;
+    private final SubtaskTree subtaskTree;
+    private final TaskTagIndex taskTagIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TaskServiceImpl(TaskRepository taskRepository, UserRepository userRepository, ModelMapper modelMapper) {
+    @Value("${app.tasks.page-size.default}")
+    private int defaultPageSize;
+
+    @Value("${app.tasks.page-size.max}")
+    private int maxPageSize;
+
+    @Value("${app.tasks.agenda.max-days}")
+    private long agendaMaxDays;
+
+    @Value("${app.tasks.sync.lag-millis}")
+    private long syncLagMillis;
+
+    @Value("${app.tasks.sync.retention-days}")
+    private long syncRetentionDays;
+
+    @Value("${app.tasks.subtasks.max-per-task}")
+    private int subtaskMaxPerTask;
+
+    @Value("${app.tasks.subtasks.max-depth}")
+    private int subtaskMaxDepth;
+
+    public TaskServiceImpl(TaskRepository taskRepository, TaskTombstoneRepository taskTombstoneRepository,
+                           TaskOccurrenceRepository taskOccurrenceRepository, SubtaskRepository subtaskRepository,
+                           TaskTagRepository taskTagRepository, UserRepository userRepository, TaskMapper taskMapper,
+                           TaskSearchIndex taskSearchIndex, TaskCounters taskCounters,
+                           RecurrenceExpander recurrenceExpander, SubtaskTree subtaskTree, TaskTagIndex taskTagIndex,
+                           ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.taskOccurrenceRepository = taskOccurrenceRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.taskTagRepository = taskTagRepository;
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.taskMapper = taskMapper;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskCounters = taskCounters;
+        this.recurrenceExpander = recurrenceExpander;
+        this.subtaskTree = subtaskTree;
+        this.taskTagIndex = taskTagIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -56,9 +165,17 @@ public class TaskServiceImpl implements TaskService {
      * @return the corresponding TaskDTO
      */
     private TaskDTO convertToDto(Task task) {
-        TaskDTO taskDTO = modelMapper.map(task, TaskDTO.class);
-        taskDTO.setUserId(task.getUser().getId());
-        return taskDTO;
+        return taskMapper.toDto(task);
+    }
+
+    /**
+     * Converts a TaskProjection read from the database to a TaskDTO.
+     *
+     * @param task the projection to convert
+     * @return the corresponding TaskDTO
+     */
+    private TaskDTO convertToDto(TaskProjection task) {
+        return taskMapper.toDto(task);
     }
 
     /**
@@ -68,7 +185,7 @@ public class TaskServiceImpl implements TaskService {
      * @return the corresponding Task entity
      */
     private Task convertToEntity(TaskRequest taskRequest) {
-        return modelMapper.map(taskRequest, Task.class);
+        return taskMapper.toEntity(taskRequest);
     }
 
     /**
@@ -79,61 +196,177 @@ public class TaskServiceImpl implements TaskService {
      * @return the created TaskDTO
      */
     @Override
+    @Transactional
     public TaskDTO createTask(Long userId, TaskRequest taskRequest) {
         Task task = convertToEntity(taskRequest);
+        RecurrenceRule.store(task, RecurrenceRule.of(taskRequest.getDate(), taskRequest.getRecurrence()));
         task.setUser(userRepository.findById(userId).orElseThrow(() -> new RuntimeException(MessageFormat.format("User with id {0} not found", userId))));
         LocalDateTime now = LocalDateTime.now();
         task.setCreatedDate(now);
         task.setUpdatedDate(now);
-        return convertToDto(taskRepository.save(task));
+        TaskDTO created = convertToDto(taskRepository.save(task));
+        created.setTags(saveTags(userId, created.getId(), taskRequest.getTags()));
+        publishChange(TaskChangeType.CREATED, null, created);
+        return created;
     }
 
     /**
-     * Updates an existing task identified by its ID with the provided TaskRequest details.
+     * Replaces the fields of one of the user's tasks with the provided TaskRequest details.
+     * The current row is read as a projection, since listeners need the state before the change, and
+     * written back with one UPDATE conditioned on the owner and on the version that was read, so a
+     * concurrent change makes it fail instead of being overwritten. Once the UPDATE matched, the row is
+     * exactly the one read with the request applied, so the response is built from both without reading
+     * it again. Only when nothing matched is the row looked up to tell a missing task from a changed one.
      *
-     * @param id          the ID of the task to update
-     * @param taskRequest the request containing updated task details
+     * @param userId          the ID of the user who owns the task
+     * @param id              the ID of the task to update
+     * @param taskRequest     the request containing updated task details
+     * @param expectedVersion the version the client last read, or {@code null} to skip the check
      * @return the updated TaskDTO
+     * @throws ResourceNotFoundException if the user has no task with this ID
+     * @throws CustomException if the task was changed since the expected version
      */
     @Override
-    public TaskDTO updateTask(Long id, TaskRequest taskRequest) {
-        Task task = findTaskById(id);
-        task.setDate(taskRequest.getDate());
-        task.setTime(taskRequest.getTime());
-        task.setTitle(taskRequest.getTitle());
-        task.setDescription(taskRequest.getDescription());
+    @Transactional
+    public TaskDTO updateTask(Long userId, Long id, TaskRequest taskRequest, Long expectedVersion) {
+        RecurrenceRule rule = RecurrenceRule.of(taskRequest.getDate(), taskRequest.getRecurrence());
+        TaskDTO before = taskRepository.findProjectionByIdAndUserId(id, userId).map(this::convertToDto).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        int updatedRows = 0;
+        if (before != null && (expectedVersion == null || expectedVersion == before.getVersion())) {
+            updatedRows = rule != null
+                    ? taskRepository.updateIfVersion(id, userId, before.getVersion(), taskRequest.getTitle(),
+                            taskRequest.getDescription(), taskRequest.getDate(), taskRequest.getTime(), rule.frequency(),
+                            rule.interval(), rule.days(), rule.until(), rule.count(), rule.end(), now)
+                    : taskRepository.updateIfVersion(id, userId, before.getVersion(), taskRequest.getTitle(),
+                            taskRequest.getDescription(), taskRequest.getDate(), taskRequest.getTime(),
+                            null, null, null, null, null, null, now);
+        }
+        if (updatedRows == 0) {
+            throw notUpdated(userId, id, expectedVersion);
+        }
+
+        TaskDTO updated = taskMapper.copy(before);
+        updated.setTitle(taskRequest.getTitle());
+        updated.setDescription(taskRequest.getDescription());
+        updated.setDate(taskRequest.getDate());
+        updated.setTime(taskRequest.getTime());
+        updated.setRecurrence(rule != null ? rule.toDto() : null);
+        updated.setVersion(before.getVersion() + 1);
+        updated.setUpdatedDate(String.valueOf(now));
+        if (isRescheduled(before, updated)) {
+            taskOccurrenceRepository.deleteByTaskIdIn(List.of(id));
+        }
+        if (taskRequest.getTags() != null) {
+            updated.setTags(replaceTags(userId, id, taskRequest.getTags()));
+        }
+        publishChange(TaskChangeType.UPDATED, before, withTags(updated));
+        return updated;
+    }
+
+    /**
+     * Applies the fields present in the patch to one of the user's tasks. Fields left out keep their
+     * value, and since the entity uses dynamic updates the UPDATE only writes the columns that really
+     * changed. A patch that changes nothing writes nothing and keeps the version.
+     *
+     * @param userId          the ID of the user who owns the task
+     * @param id              the ID of the task to patch
+     * @param patch           the fields to change
+     * @param expectedVersion the version the client last read, or {@code null} to skip the check
+     * @return the patched TaskDTO, with its new version
+     * @throws ResourceNotFoundException if the user has no task with this ID
+     * @throws CustomException if the task was changed since the expected version
+     */
+    @Override
+    @Transactional
+    public TaskDTO patchTask(Long userId, Long id, TaskPatchRequest patch, Long expectedVersion) {
+        Task task = taskRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+        checkVersion(id, task.getVersion(), expectedVersion);
+        TaskDTO before = convertToDto(task);
+
+        boolean changed = false;
+        if (patch.getTitle() != null && !patch.getTitle().equals(task.getTitle())) {
+            task.setTitle(patch.getTitle());
+            changed = true;
+        }
+        if (patch.getDescription() != null && !patch.getDescription().equals(task.getDescription())) {
+            task.setDescription(patch.getDescription());
+            changed = true;
+        }
+        if (patch.getDate() != null && !patch.getDate().equals(task.getDate())) {
+            // The date of a recurring task is the start of its series
+            RecurrenceRule.store(task, RecurrenceRule.of(patch.getDate(), before.getRecurrence()));
+            task.setDate(patch.getDate());
+            changed = true;
+        }
+        if (patch.getTime() != null && !patch.getTime().equals(task.getTime())) {
+            task.setTime(patch.getTime());
+            changed = true;
+        }
+        Set<String> tags = null;
+        if (patch.getTags() != null && !TaskTagIndex.normalize(patch.getTags()).equals(withTags(before).getTags())) {
+            tags = replaceTags(userId, id, patch.getTags());
+            changed = true;
+        }
+        boolean statusChanged = false;
+        if (patch.getCompleted() != null && patch.getCompleted() != task.isCompleted()) {
+            task.setCompleted(patch.getCompleted());
+            statusChanged = true;
+        }
+        if (patch.getImportant() != null && patch.getImportant() != task.isImportant()) {
+            task.setImportant(patch.getImportant());
+            statusChanged = true;
+        }
+        if (!changed && !statusChanged) {
+            return withTags(before);
+        }
+
         task.setUpdatedDate(LocalDateTime.now());
-        return convertToDto(taskRepository.save(task));
+        TaskDTO updated = convertToDto(taskRepository.saveAndFlush(task));
+        if (isRescheduled(before, updated)) {
+            taskOccurrenceRepository.deleteByTaskIdIn(List.of(id));
+        }
+        updated.setTags(tags);
+        withTags(updated);
+        publishChange(changed ? TaskChangeType.UPDATED : TaskChangeType.STATUS_CHANGED, before, updated);
+        return updated;
     }
 
     /**
-     * Retrieves all tasks for a specific user.
+     * Retrieves one page of tasks for a specific user, ordered by date, time and id.
      *
      * @param userId the ID of the user whose tasks are to be retrieved
-     * @return a list of TaskDTOs for the user
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size   the requested page size, or {@code null} for the configured default
+     * @return the page of TaskDTOs and the cursor of the next page
      */
     @Override
-    public List<TaskDTO> getTasksByUserId(Long userId) {
-        return taskRepository.findTaskByUserId(userId)
-                .stream()
-                .map(this::convertToDto)
-                .toList();
+    public TaskPageResponse getTasksByUserId(Long userId, String cursor, Integer size) {
+        return findPage(userId, new TaskFilterRequest(), cursor, size);
     }
 
     /**
-     * Retrieves a task by its ID and the associated user's ID.
+     * Retrieves a task by its ID and the associated user's ID, with its checklist and tags.
+     * A task owned by someone else is reported as not found.
      *
      * @param userId the ID of the user who owns the task
      * @param id     the ID of the task to retrieve
      * @return the corresponding TaskDTO
+     * @throws ResourceNotFoundException if the user has no task with this ID
      */
     @Override
     public TaskDTO getTaskByUserIdAndTaskId(Long userId, Long id) {
-        Task task = findTaskById(id);
-        if (!Objects.equals(task.getUser().getId(), userId)) {
-            throw new AccessDeniedException("You do not have permission to access this task");
-        }
-        return convertToDto(task);
+        TaskDTO task = findTaskDto(userId, id);
+        subtaskTree.attach(List.of(task));
+        attachTags(List.of(task));
+        return task;
+    }
+
+    private TaskDTO findTaskDto(Long userId, Long id) {
+        return taskRepository.findProjectionByIdAndUserId(id, userId)
+                .map(this::convertToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
     }
 
     /**
@@ -152,15 +385,62 @@ public class TaskServiceImpl implements TaskService {
     }
 
     /**
-     * Deletes a task identified by its ID.
-     * Throws a RuntimeException if the task is not found.
+     * Moves one of the user's tasks to the trash and leaves a tombstone for syncing clients. The row
+     * is only marked with a single UPDATE scoped to the owner, which finds out whether the task exists;
+     * it is removed later, in small chunks, by the {@link TaskTrashPurger}. The trashed row, read once
+     * the UPDATE matched, is what listeners get as the deleted state.
+     *
+     * @param userId the ID of the user who owns the task
+     * @param id     the ID of the task to delete
+     * @throws ResourceNotFoundException if the user has no task with this ID
+     */
+    @Override
+    @Transactional
+    public void deleteTask(Long userId, Long id) {
+        if (taskRepository.moveToTrash(id, userId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Task", "id", id);
+        }
+        TaskDTO deleted = taskRepository.findTrashedProjectionByIdAndUserId(id, userId)
+                .map(this::convertToDto)
+                .orElseThrow();
+        taskTombstoneRepository.save(new TaskTombstone(null, id, userId, LocalDateTime.now()));
+        publishChange(TaskChangeType.DELETED, deleted, null);
+    }
+
+    /**
+     * Restores one of the user's tasks from the trash. Its tombstones are removed, and its updated date
+     * is moved to now, so syncing clients receive it again as a changed task.
+     *
+     * @param userId the ID of the user who owns the task
+     * @param id     the ID of the task to restore
+     * @return the restored TaskDTO
+     * @throws ResourceNotFoundException if the user has no task with this ID in the trash
+     */
+    @Override
+    @Transactional
+    public TaskDTO restoreTask(Long userId, Long id) {
+        if (taskRepository.restoreFromTrash(id, userId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Task", "id", id);
+        }
+        taskTombstoneRepository.deleteByTaskId(id);
+        TaskDTO restored = withTags(findTaskDto(userId, id));
+        publishChange(TaskChangeType.RESTORED, null, restored);
+        return restored;
+    }
+
+    /**
+     * Retrieves the tasks in the user's trash, most recently deleted first.
      *
-     * @param id the ID of the task to delete
+     * @param userId the ID of the user whose trash is retrieved
+     * @param limit  the maximum number of tasks, or {@code null} for the configured default page size
+     * @return the deleted TaskDTOs
      */
     @Override
-    public void deleteTask(Long id) {
-        Task task = findTaskById(id);
-        taskRepository.delete(task);
+    public List<TaskDTO> getTrash(Long userId, Integer limit) {
+        return taskRepository.findTrash(userId, PageRequest.of(0, resolvePageSize(limit)))
+                .stream()
+                .map(this::convertToDto)
+                .toList();
     }
 
     @Override
@@ -171,31 +451,755 @@ public class TaskServiceImpl implements TaskService {
                 .toList();
     }
 
+    /**
+     * Sets the completed or important flag of one of the user's tasks with a single UPDATE, scoped to
+     * the owner and conditioned on the flag actually changing, without loading the task. When it matched,
+     * the row is read once for the response; the UPDATE holds its lock, so the state before it differs
+     * only by the flag and the version. When it matched nothing, the row is read to tell a missing task
+     * from a flag that already had the value, which writes nothing and publishes no change.
+     *
+     * @param userId   the ID of the user who owns the task
+     * @param id       the ID of the task to update
+     * @param property {@code completed} or {@code important}
+     * @param request  the new value of the flag
+     * @return the updated TaskDTO
+     * @throws ResourceNotFoundException if the user has no task with this ID
+     * @throws CustomException if the property is not a task flag
+     */
     @Override
-    public TaskDTO updateTaskStatus(Long id, String property, ChangeTaskStatusRequest request) {
-        Task task = findTaskById(id);
-        switch (property) {
-            case "completed":
-                task.setCompleted(request.isValue());
-                break;
-            case "important":
-                task.setImportant(request.isValue());
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid task property: " + property);
+    @Transactional
+    public TaskDTO updateTaskStatus(Long userId, Long id, String property, ChangeTaskStatusRequest request) {
+        boolean value = request.isValue();
+        LocalDateTime now = LocalDateTime.now();
+        int updatedRows = switch (property) {
+            case "completed" -> taskRepository.updateCompleted(id, userId, value, now);
+            case "important" -> taskRepository.updateImportant(id, userId, value, now);
+            default -> throw new CustomException(HttpStatus.BAD_REQUEST, "Invalid task property: " + property);
+        };
+        TaskDTO updated = findTaskDto(userId, id);
+        if (updatedRows == 0) {
+            return updated;
+        }
+
+        // The UPDATE only matched if the flag had the opposite value
+        TaskDTO before = taskMapper.copy(updated);
+        if ("completed".equals(property)) {
+            before.setCompleted(!value);
+        } else {
+            before.setImportant(!value);
         }
-        return convertToDto(taskRepository.save(task));
+        before.setVersion(updated.getVersion() - 1);
+        before.setUpdatedDate(null);
+        publishChange(TaskChangeType.STATUS_CHANGED, before, updated);
+        return updated;
     }
 
+    /**
+     * Retrieves one page of the user's tasks matching every criterion set on the filter.
+     * The whole combination is answered by a single query.
+     *
+     * @param userId the ID of the user whose tasks are to be retrieved
+     * @param filter the criteria to combine
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size   the requested page size, or {@code null} for the configured default
+     * @return the page of matching TaskDTOs and the cursor of the next page
+     */
     @Override
-    public List<TaskDTO> getTasksByFilter(Long userId, String filterField, boolean filterValue) {
-        List<Task> tasks = switch (filterField) {
-            case "completed" -> taskRepository.findByUserIdAndIsCompleted(userId, filterValue);
-            case "important" -> taskRepository.findByUserIdAndIsImportant(userId, filterValue);
-            default -> throw new IllegalArgumentException("Invalid filter field: " + filterField);
-        };
-        return tasks.stream()
+    public TaskPageResponse getTasksByFilter(Long userId, TaskFilterRequest filter, String cursor, Integer size) {
+        validateFilter(filter);
+        return findPage(userId, filter, cursor, size);
+    }
+
+    /**
+     * Hands every task matching the filter to the consumer, in page order, while the rows are still
+     * being read from a forward-only database cursor. Nothing is buffered beyond the driver's fetch
+     * size, so memory stays flat however many tasks the user has. If the consumer throws, for example
+     * because the client went away, the cursor is closed and the rest of the result is never read.
+     *
+     * @param userId   the ID of the user whose tasks are streamed
+     * @param filter   the filter criteria, all optional
+     * @param consumer receives each TaskDTO as soon as its row is read
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamTasks(Long userId, TaskFilterRequest filter, Consumer<TaskDTO> consumer) {
+        validateFilter(filter);
+        try (Stream<TaskProjection> tasks = taskRepository.streamTasks(userId, filter)) {
+            tasks.map(this::convertToDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Searches the user's tasks by title and description through the in-process search index.
+     * Only the IDs of the best matches are resolved against the database.
+     *
+     * @param userId the ID of the user whose tasks are searched
+     * @param query  the free-text query; every term must match, either exactly or as a prefix
+     * @param limit  the maximum number of results, or {@code null} for the configured default page size
+     * @return the matching TaskDTOs, best match first
+     */
+    @Override
+    public List<TaskDTO> searchTasks(Long userId, String query, Integer limit) {
+        List<Long> ids = taskSearchIndex.search(userId, query, resolvePageSize(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TaskProjection> tasksById = taskRepository.findProjectionsByIdInAndUserId(ids, userId)
+                .stream()
+                .collect(Collectors.toMap(TaskProjection::id, Function.identity()));
+        return ids.stream()
+                .map(tasksById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    /**
+     * Returns what changed in the user's tasks since the sync token: created or updated tasks and the
+     * IDs of deleted ones. Changes younger than the configured lag are left for the next call, so a
+     * transaction that commits shortly after its timestamp was taken is not skipped.
+     *
+     * @param userId the ID of the user whose tasks are synced
+     * @param since  the token returned by the previous call, or {@code null} to start syncing from now
+     * @return the changes and the token to pass on the next call
+     * @throws CustomException with status 410 if the token is older than the tombstone retention
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskChangesResponse getTaskChanges(Long userId, String since) {
+        LocalDateTime until = LocalDateTime.now().minusNanos(syncLagMillis * 1_000_000);
+        SyncToken token = SyncToken.decode(since);
+        if (token == null) {
+            return new TaskChangesResponse(List.of(), List.of(), new SyncToken(until).encode());
+        }
+
+        LocalDateTime watermark = token.watermark();
+        if (watermark.isBefore(LocalDateTime.now().minusDays(syncRetentionDays))) {
+            throw new CustomException(HttpStatus.GONE, "Sync token expired, reload all tasks");
+        }
+        if (!until.isAfter(watermark)) {
+            return new TaskChangesResponse(List.of(), List.of(), since);
+        }
+
+        List<TaskDTO> changed = taskRepository.findChangedBetween(userId, watermark, until)
+                .stream()
                 .map(this::convertToDto)
                 .toList();
+        List<Long> deleted = taskTombstoneRepository.findTaskIdsDeletedBetween(userId, watermark, until);
+        return new TaskChangesResponse(changed, deleted, new SyncToken(until).encode());
+    }
+
+    /**
+     * Applies a list of create, update, delete and status operations in one transaction. The tasks the
+     * operations refer to are loaded with a single query, the changes are made on the managed entities,
+     * and Hibernate writes them with batched JDBC statements when the transaction flushes. An operation
+     * that is malformed or names a task the user does not own is reported in its result and skipped;
+     * the others still apply.
+     *
+     * @param userId  the ID of the user whose tasks are changed
+     * @param request the operations, applied in order
+     * @return one result per operation, in request order
+     */
+    @Override
+    @Transactional
+    public TaskBatchResponse executeBatch(Long userId, TaskBatchRequest request) {
+        List<TaskOperationRequest> operations = request.getOperations();
+        Set<Long> ids = operations.stream()
+                .map(TaskOperationRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Task> tasksById = ids.isEmpty() ? new HashMap<>() : taskRepository.findByIdInAndUserId(ids, userId)
+                .stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        TaskOperationResult[] results = new TaskOperationResult[operations.size()];
+        List<Integer> createdIndexes = new ArrayList<>();
+        List<Task> created = new ArrayList<>();
+        List<Task> deleted = new ArrayList<>();
+        List<TaskChangedEvent> changes = new ArrayList<>();
+        Map<TaskDTO, Task> modified = new IdentityHashMap<>();
+        List<Long> rescheduled = new ArrayList<>();
+        Map<Long, Set<String>> retagged = new HashMap<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperationRequest operation = operations.get(i);
+            TaskOperationType op = operation.getOp();
+            Long id = operation.getId();
+
+            if (op == TaskOperationType.CREATE) {
+                if (operation.getTask() == null) {
+                    results[i] = rejected(i, operation, HttpStatus.BAD_REQUEST, "task is required");
+                    continue;
+                }
+                Task task = convertToEntity(operation.getTask());
+                try {
+                    RecurrenceRule.store(task, RecurrenceRule.of(task.getDate(), operation.getTask().getRecurrence()));
+                } catch (CustomException e) {
+                    results[i] = rejected(i, operation, e.getStatus(), e.getMessage());
+                    continue;
+                }
+                task.setUser(userRepository.getReferenceById(userId));
+                task.setCreatedDate(now);
+                task.setUpdatedDate(now);
+                created.add(task);
+                createdIndexes.add(i);
+                continue;
+            }
+
+            if (id == null) {
+                results[i] = rejected(i, operation, HttpStatus.BAD_REQUEST, "id is required");
+                continue;
+            }
+            Task task = tasksById.get(id);
+            if (task == null) {
+                results[i] = rejected(i, operation, HttpStatus.NOT_FOUND, MessageFormat.format(TASK_NOT_FOUND_MESSAGE, id));
+                continue;
+            }
+            TaskDTO before = convertToDto(task);
+
+            switch (op) {
+                case UPDATE -> {
+                    TaskRequest taskRequest = operation.getTask();
+                    if (taskRequest == null) {
+                        results[i] = rejected(i, operation, HttpStatus.BAD_REQUEST, "task is required");
+                        continue;
+                    }
+                    RecurrenceRule rule;
+                    try {
+                        rule = RecurrenceRule.of(taskRequest.getDate(), taskRequest.getRecurrence());
+                    } catch (CustomException e) {
+                        results[i] = rejected(i, operation, e.getStatus(), e.getMessage());
+                        continue;
+                    }
+                    task.setDate(taskRequest.getDate());
+                    task.setTime(taskRequest.getTime());
+                    task.setTitle(taskRequest.getTitle());
+                    task.setDescription(taskRequest.getDescription());
+                    RecurrenceRule.store(task, rule);
+                    task.setUpdatedDate(now);
+                    TaskDTO after = convertToDto(task);
+                    if (isRescheduled(before, after)) {
+                        rescheduled.add(id);
+                    }
+                    if (taskRequest.getTags() != null) {
+                        after.setTags(TaskTagIndex.normalize(taskRequest.getTags()));
+                        retagged.put(id, after.getTags());
+                    }
+                    modified.put(after, task);
+                    results[i] = new TaskOperationResult(i, op, id, HttpStatus.OK.value(), null, after);
+                    changes.add(new TaskChangedEvent(TaskChangeType.UPDATED, userId, id, before, after));
+                }
+                case STATUS -> {
+                    if (operation.getValue() == null) {
+                        results[i] = rejected(i, operation, HttpStatus.BAD_REQUEST, "value is required");
+                        continue;
+                    }
+                    if ("completed".equals(operation.getField())) {
+                        task.setCompleted(operation.getValue());
+                    } else if ("important".equals(operation.getField())) {
+                        task.setImportant(operation.getValue());
+                    } else {
+                        results[i] = rejected(i, operation, HttpStatus.BAD_REQUEST, "Invalid task property: " + operation.getField());
+                        continue;
+                    }
+                    task.setUpdatedDate(now);
+                    TaskDTO after = convertToDto(task);
+                    modified.put(after, task);
+                    results[i] = new TaskOperationResult(i, op, id, HttpStatus.OK.value(), null, after);
+                    changes.add(new TaskChangedEvent(TaskChangeType.STATUS_CHANGED, userId, id, before, after));
+                }
+                case DELETE -> {
+                    tasksById.remove(id);
+                    task.setDeletedDate(now);
+                    deleted.add(task);
+                    results[i] = new TaskOperationResult(i, op, id, HttpStatus.NO_CONTENT.value(), null, null);
+                    changes.add(new TaskChangedEvent(TaskChangeType.DELETED, userId, id, before, null));
+                }
+                default -> throw new IllegalStateException("Unexpected operation: " + op);
+            }
+        }
+
+        taskRepository.saveAll(created);
+        for (int j = 0; j < created.size(); j++) {
+            int index = createdIndexes.get(j);
+            TaskDTO task = convertToDto(created.get(j));
+            task.setTags(saveTags(userId, task.getId(), operations.get(index).getTask().getTags()));
+            results[index] = new TaskOperationResult(index, TaskOperationType.CREATE, task.getId(), HttpStatus.OK.value(), null, task);
+            changes.add(new TaskChangedEvent(TaskChangeType.CREATED, userId, task.getId(), null, task));
+        }
+        if (!deleted.isEmpty()) {
+            taskTombstoneRepository.saveAll(deleted.stream()
+                    .map(task -> new TaskTombstone(null, task.getId(), userId, now))
+                    .toList());
+        }
+        if (!rescheduled.isEmpty()) {
+            taskOccurrenceRepository.deleteByTaskIdIn(rescheduled);
+        }
+        if (!retagged.isEmpty()) {
+            taskTagRepository.deleteByTaskIdIn(retagged.keySet());
+            retagged.forEach((id, tags) -> saveTags(userId, id, tags));
+        }
+        taskRepository.flush();
+        // Versions are only incremented by the flush
+        modified.forEach((after, task) -> after.setVersion(task.getVersion()));
+
+        changes.forEach(eventPublisher::publishEvent);
+        return new TaskBatchResponse(Arrays.asList(results));
+    }
+
+    /**
+     * Retrieves the user's tasks dated within a range of days, in date and time order. One-off tasks come
+     * from one range scan of the {@code (user_id, date, time, id)} index; recurring tasks are expanded
+     * into their occurrences of the range by the {@link RecurrenceExpander}.
+     *
+     * @param userId the ID of the user whose tasks are retrieved
+     * @param from   the first day, inclusive
+     * @param to     the last day, inclusive
+     * @return the tasks and occurrences of the requested days
+     * @throws CustomException if the range is reversed or longer than the configured maximum
+     */
+    @Override
+    public List<TaskDTO> getAgenda(Long userId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= agendaMaxDays) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, MessageFormat.format("An agenda spans at most {0} days", agendaMaxDays));
+        }
+        List<TaskDTO> occurrences = recurrenceExpander.expand(userId, from, to);
+        List<TaskDTO> agenda = taskRepository.findAgenda(userId, from, to)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (!occurrences.isEmpty()) {
+            agenda.addAll(occurrences);
+            agenda.sort(RecurrenceExpander.ORDER);
+        }
+        return agenda;
+    }
+
+    /**
+     * Counts the user's tasks per day of a month. Only days with tasks are returned. One-off tasks are
+     * counted from the {@code (user_id, date, time, id)} index without reading the rows, and the
+     * occurrences of recurring tasks in the month are added to them.
+     *
+     * @param userId the ID of the user whose tasks are counted
+     * @param month  the month to count
+     * @return the task count of every day of the month that has tasks
+     */
+    @Override
+    public TaskCalendarResponse getCalendar(Long userId, YearMonth month) {
+        List<TaskDayCount> days = taskRepository.countPerDay(userId, month.atDay(1), month.plusMonths(1).atDay(1));
+        List<TaskDTO> occurrences = recurrenceExpander.expand(userId, month.atDay(1), month.atEndOfMonth());
+        if (occurrences.isEmpty()) {
+            return new TaskCalendarResponse(month, days);
+        }
+
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        days.forEach(day -> counts.put(day.date(), day.count()));
+        occurrences.forEach(occurrence -> counts.merge(occurrence.getDate(), 1L, Long::sum));
+        return new TaskCalendarResponse(month, counts.entrySet().stream()
+                .map(entry -> new TaskDayCount(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /**
+     * Completes, cancels or moves one occurrence of a recurring task of the user. Only the occurrences
+     * changed this way are stored, as exceptions to the rule. The task's version and updated date are
+     * bumped, so cached listings and syncing clients pick the change up.
+     *
+     * @param userId         the ID of the user who owns the task
+     * @param id             the ID of the recurring task
+     * @param occurrenceDate the date the rule gives the occurrence
+     * @param request        the changes, fields left out keep their value
+     * @return the occurrence after the change, or {@code null} if it is cancelled
+     * @throws ResourceNotFoundException if the user has no recurring task with this ID or the rule has no
+     *                                   occurrence on that date
+     */
+    @Override
+    @Transactional
+    public TaskDTO updateOccurrence(Long userId, Long id, LocalDate occurrenceDate, TaskOccurrenceRequest request) {
+        Task task = findRecurringTask(userId, id, occurrenceDate);
+        TaskOccurrence occurrence = taskOccurrenceRepository.findByTaskIdAndOccurrenceDate(id, occurrenceDate)
+                .orElseGet(() -> new TaskOccurrence(null, id, userId, occurrenceDate, false, false, null, null));
+        if (request.getCompleted() != null) {
+            occurrence.setCompleted(request.getCompleted());
+        }
+        if (request.getCancelled() != null) {
+            occurrence.setCancelled(request.getCancelled());
+        }
+        if (request.getDate() != null) {
+            occurrence.setDate(request.getDate().equals(occurrenceDate) ? null : request.getDate());
+        }
+        if (request.getTime() != null) {
+            occurrence.setTime(request.getTime().equals(task.getTime()) ? null : request.getTime());
+        }
+        taskOccurrenceRepository.save(occurrence);
+        touch(task);
+        return recurrenceExpander.occurrence(task, occurrenceDate, occurrence);
+    }
+
+    /**
+     * Drops the stored exception of one occurrence of a recurring task, so it follows the rule again.
+     *
+     * @param userId         the ID of the user who owns the task
+     * @param id             the ID of the recurring task
+     * @param occurrenceDate the date the rule gives the occurrence
+     * @throws ResourceNotFoundException if the user has no recurring task with this ID or the rule has no
+     *                                   occurrence on that date
+     */
+    @Override
+    @Transactional
+    public void resetOccurrence(Long userId, Long id, LocalDate occurrenceDate) {
+        Task task = findRecurringTask(userId, id, occurrenceDate);
+        if (taskOccurrenceRepository.deleteByTaskIdAndOccurrenceDate(id, occurrenceDate) > 0) {
+            touch(task);
+        }
+    }
+
+    /**
+     * Adds an item to the checklist of one of the user's tasks, directly under the task or nested under
+     * another item. The task's version and updated date are bumped, so cached listings and syncing
+     * clients pick the change up.
+     *
+     * @param userId  the ID of the user who owns the task
+     * @param taskId  the ID of the task
+     * @param request the item to add
+     * @return the task with its checklist after the change
+     * @throws ResourceNotFoundException if the user has no task with this ID or the parent is not one of its items
+     * @throws CustomException           if the checklist is full or the parent is nested too deep
+     */
+    @Override
+    @Transactional
+    public TaskDTO addSubtask(Long userId, Long taskId, SubtaskRequest request) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        List<Subtask> items = new ArrayList<>(subtaskRepository.findByTaskIdIn(List.of(taskId)));
+        if (items.size() >= subtaskMaxPerTask) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, MessageFormat.format("A task has at most {0} subtasks", subtaskMaxPerTask));
+        }
+        if (request.getParentId() != null && depth(items, findSubtask(items, request.getParentId())) >= subtaskMaxDepth) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, MessageFormat.format("Subtasks are nested at most {0} levels deep", subtaskMaxDepth));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Subtask subtask = new Subtask(null, taskId, userId, request.getParentId(), request.getTitle(), false, 0);
+        subtask.setCreatedDate(now);
+        subtask.setUpdatedDate(now);
+        List<Subtask> siblings = siblings(items, request.getParentId());
+        int position = request.getPosition() != null ? Math.min(request.getPosition(), siblings.size()) : siblings.size();
+        siblings.add(position, subtask);
+        renumber(siblings, now);
+        items.add(subtaskRepository.save(subtask));
+
+        TaskDTO updated = touch(task);
+        SubtaskTree.attach(updated, items);
+        return updated;
+    }
+
+    /**
+     * Renames, completes, reopens or moves an item of the checklist of one of the user's tasks among its
+     * siblings. Completing or reopening an item does the same to every item nested under it.
+     *
+     * @param userId    the ID of the user who owns the task
+     * @param taskId    the ID of the task
+     * @param subtaskId the ID of the item
+     * @param patch     the fields to change
+     * @return the task with its checklist after the change
+     * @throws ResourceNotFoundException if the user has no task with this ID or the item is not one of its items
+     */
+    @Override
+    @Transactional
+    public TaskDTO updateSubtask(Long userId, Long taskId, Long subtaskId, SubtaskPatchRequest patch) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        List<Subtask> items = subtaskRepository.findByTaskIdIn(List.of(taskId));
+        Subtask subtask = findSubtask(items, subtaskId);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (patch.getTitle() != null) {
+            subtask.setTitle(patch.getTitle());
+            subtask.setUpdatedDate(now);
+        }
+        if (patch.getCompleted() != null) {
+            for (Subtask item : subtree(items, subtask)) {
+                if (item.isCompleted() != patch.getCompleted()) {
+                    item.setCompleted(patch.getCompleted());
+                    item.setUpdatedDate(now);
+                }
+            }
+        }
+        if (patch.getPosition() != null) {
+            List<Subtask> siblings = siblings(items, subtask.getParentId());
+            siblings.remove(subtask);
+            siblings.add(Math.min(patch.getPosition(), siblings.size()), subtask);
+            renumber(siblings, now);
+        }
+
+        TaskDTO updated = touch(task);
+        SubtaskTree.attach(updated, items);
+        return updated;
+    }
+
+    /**
+     * Removes an item, and every item nested under it, from the checklist of one of the user's tasks.
+     *
+     * @param userId    the ID of the user who owns the task
+     * @param taskId    the ID of the task
+     * @param subtaskId the ID of the item
+     * @throws ResourceNotFoundException if the user has no task with this ID or the item is not one of its items
+     */
+    @Override
+    @Transactional
+    public void deleteSubtask(Long userId, Long taskId, Long subtaskId) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        List<Subtask> items = subtaskRepository.findByTaskIdIn(List.of(taskId));
+        Subtask subtask = findSubtask(items, subtaskId);
+
+        List<Subtask> removed = subtree(items, subtask);
+        subtaskRepository.deleteAllInBatch(removed);
+        List<Subtask> siblings = siblings(items, subtask.getParentId());
+        siblings.remove(subtask);
+        renumber(siblings, LocalDateTime.now());
+        touch(task);
+    }
+
+    /**
+     * Finds the user's tasks by tags and flags. The query is answered by the in-memory bitmaps of the
+     * {@link TaskTagIndex}, and only the rows of the returned page are read.
+     *
+     * @param userId the ID of the user whose tasks are queried
+     * @param query  the tags and flags to match
+     * @param limit  the maximum number of tasks, or {@code null} for the configured default page size
+     * @return the number of matching tasks and the newest of them
+     */
+    @Override
+    public TaskTagQueryResponse getTasksByTags(Long userId, TaskTagQueryRequest query, Integer limit) {
+        TaskTagMatch match = taskTagIndex.query(userId, query.getAll(), query.getAny(), query.getNone(),
+                query.getCompleted(), query.getImportant(), resolvePageSize(limit));
+        if (match.ids().isEmpty()) {
+            return new TaskTagQueryResponse(match.total(), List.of());
+        }
+        Map<Long, TaskProjection> tasksById = taskRepository.findProjectionsByIdInAndUserId(match.ids(), userId)
+                .stream()
+                .collect(Collectors.toMap(TaskProjection::id, Function.identity()));
+        List<TaskDTO> tasks = match.ids().stream()
+                .map(tasksById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .toList();
+        attachTags(tasks);
+        return new TaskTagQueryResponse(match.total(), tasks);
+    }
+
+    /**
+     * Lists the user's tags with the number of tasks carrying each, in alphabetical order.
+     *
+     * @param userId the ID of the user whose tags are listed
+     * @return the tags and their task counts
+     */
+    @Override
+    public List<TaskTagCount> getTags(Long userId) {
+        return taskTagIndex.counts(userId)
+                .entrySet()
+                .stream()
+                .map(entry -> new TaskTagCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Returns the user's task counts from the incrementally maintained counters.
+     *
+     * @param userId the ID of the user whose tasks are counted
+     * @return the total, completed, important, overdue and due-today counts
+     */
+    @Override
+    public TaskSummaryResponse getTaskSummary(Long userId) {
+        return taskCounters.summary(userId);
+    }
+
+    private Task findRecurringTask(Long userId, Long id, LocalDate occurrenceDate) {
+        Task task = taskRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+        RecurrenceRule rule = RecurrenceRule.of(task);
+        if (rule == null || !rule.occursOn(occurrenceDate)) {
+            throw new ResourceNotFoundException("Occurrence", "date", occurrenceDate);
+        }
+        return task;
+    }
+
+    /**
+     * Marks a task as changed when only its occurrences or subtasks were, and tells the listeners about it.
+     *
+     * @return the task after the change
+     */
+    private TaskDTO touch(Task task) {
+        TaskDTO before = convertToDto(task);
+        task.setUpdatedDate(LocalDateTime.now());
+        TaskDTO after = convertToDto(taskRepository.saveAndFlush(task));
+        publishChange(TaskChangeType.UPDATED, before, after);
+        return after;
+    }
+
+    /**
+     * Stores the tags of a new task.
+     *
+     * @return the normalized tags
+     */
+    private Set<String> saveTags(Long userId, Long taskId, Collection<String> names) {
+        SortedSet<String> tags = TaskTagIndex.normalize(names);
+        taskTagRepository.saveAll(tags.stream().map(name -> new TaskTag(null, taskId, userId, name)).toList());
+        return tags;
+    }
+
+    private Set<String> replaceTags(Long userId, Long taskId, Collection<String> names) {
+        taskTagRepository.deleteByTaskIdIn(List.of(taskId));
+        return saveTags(userId, taskId, names);
+    }
+
+    /**
+     * Sets the tags of the tasks with one query.
+     */
+    private void attachTags(List<TaskDTO> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (TaskTag tag : taskTagRepository.findByTaskIdIn(tasks.stream().map(TaskDTO::getId).toList())) {
+            tags.computeIfAbsent(tag.getTaskId(), id -> new TreeSet<>()).add(tag.getName());
+        }
+        tasks.forEach(task -> task.setTags(tags.getOrDefault(task.getId(), Set.of())));
+    }
+
+    private TaskDTO withTags(TaskDTO task) {
+        if (task.getTags() == null) {
+            attachTags(List.of(task));
+        }
+        return task;
+    }
+
+    private Subtask findSubtask(List<Subtask> items, Long subtaskId) {
+        return items.stream()
+                .filter(item -> item.getId().equals(subtaskId))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Subtask", "id", subtaskId));
+    }
+
+    private static List<Subtask> siblings(List<Subtask> items, Long parentId) {
+        return items.stream()
+                .filter(item -> Objects.equals(item.getParentId(), parentId))
+                .sorted(Comparator.comparingInt(Subtask::getPosition).thenComparing(Subtask::getId))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Numbers the siblings from zero in list order; only the items whose position changes are written.
+     */
+    private static void renumber(List<Subtask> siblings, LocalDateTime now) {
+        for (int i = 0; i < siblings.size(); i++) {
+            Subtask sibling = siblings.get(i);
+            if (sibling.getPosition() != i) {
+                sibling.setPosition(i);
+                sibling.setUpdatedDate(now);
+            }
+        }
+    }
+
+    /**
+     * The item and every item nested under it, parents before their children.
+     */
+    private static List<Subtask> subtree(List<Subtask> items, Subtask root) {
+        List<Subtask> subtree = new ArrayList<>(List.of(root));
+        for (int i = 0; i < subtree.size(); i++) {
+            Long parentId = subtree.get(i).getId();
+            items.stream().filter(item -> parentId.equals(item.getParentId())).forEach(subtree::add);
+        }
+        return subtree;
+    }
+
+    private static int depth(List<Subtask> items, Subtask item) {
+        Map<Long, Long> parents = new HashMap<>();
+        items.forEach(subtask -> parents.put(subtask.getId(), subtask.getParentId()));
+        int depth = 1;
+        for (Long parentId = item.getParentId(); parentId != null; parentId = parents.get(parentId)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Whether a change moved the occurrences of a recurring task, which makes its stored exceptions
+     * refer to occurrences that may no longer exist.
+     */
+    private boolean isRescheduled(TaskDTO before, TaskDTO after) {
+        if (before.getRecurrence() == null) {
+            return false;
+        }
+        return !before.getRecurrence().equals(after.getRecurrence()) || !Objects.equals(before.getDate(), after.getDate());
+    }
+
+    /**
+     * Explains why a conditional UPDATE of a task matched no row: the task is gone, or it is not at the
+     * version the client expected, or it changed concurrently.
+     */
+    private RuntimeException notUpdated(Long userId, Long id, Long expectedVersion) {
+        checkVersion(id, findTaskDto(userId, id).getVersion(), expectedVersion);
+        return new ObjectOptimisticLockingFailureException(Task.class, id);
+    }
+
+    private void checkVersion(Long id, long version, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new CustomException(HttpStatus.PRECONDITION_FAILED, "Task with id " + id
+                    + " is at version " + version + ", not " + expectedVersion);
+        }
+    }
+
+    private TaskOperationResult rejected(int index, TaskOperationRequest operation, HttpStatus status, String error) {
+        return new TaskOperationResult(index, operation.getOp(), operation.getId(), status.value(), error, null);
+    }
+
+    private void publishChange(TaskChangeType type, TaskDTO before, TaskDTO after) {
+        TaskDTO task = after != null ? after : before;
+        eventPublisher.publishEvent(new TaskChangedEvent(type, task.getUserId(), task.getId(), before, after));
+    }
+
+    /**
+     * Loads one page with a keyset (seek) query over {@code (date, time, id)}, so the cost of a page
+     * does not depend on how deep the client has scrolled. One extra row is fetched to find out
+     * whether a next page exists. The checklists and the tags of the whole page come with one more query each.
+     */
+    private TaskPageResponse findPage(Long userId, TaskFilterRequest filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        TaskCursor after = TaskCursor.decode(cursor, filter.getSort());
+
+        List<TaskProjection> tasks = taskRepository.findTasks(userId, filter, after, pageSize + 1);
+
+        boolean hasNext = tasks.size() > pageSize;
+        List<TaskDTO> page = tasks.stream()
+                .limit(pageSize)
+                .map(this::convertToDto)
+                .toList();
+        String next = hasNext ? TaskCursor.of(page.get(page.size() - 1), filter.getSort()).encode() : null;
+        subtaskTree.attach(page);
+        attachTags(page);
+        return new TaskPageResponse(page, next);
+    }
+
+    private void validateFilter(TaskFilterRequest filter) {
+        if (filter.getDateFrom() != null && filter.getDateTo() != null && filter.getDateFrom().isAfter(filter.getDateTo())) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "dateFrom must not be after dateTo");
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
     }
 }
@@ -0,0 +1,36 @@
+package org.khanhpham.todo.service.implement;
+
+import org.khanhpham.todo.repository.TaskTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes task tombstones older than the sync token retention. Clients holding an older token
+ * are told to reload everything, so these tombstones can no longer be asked for.
+ */
+@Component
+public class TaskTombstonePurger {
+    private static final Logger logger = LoggerFactory.getLogger(TaskTombstonePurger.class);
+
+    private final TaskTombstoneRepository taskTombstoneRepository;
+
+    @Value("${app.tasks.sync.retention-days}")
+    private long syncRetentionDays;
+
+    public TaskTombstonePurger(TaskTombstoneRepository taskTombstoneRepository) {
+        this.taskTombstoneRepository = taskTombstoneRepository;
+    }
+
+    @Scheduled(cron = "${app.tasks.sync.purge-cron}")
+    @Transactional
+    public void purge() {
+        int purged = taskTombstoneRepository.deleteOlderThan(LocalDateTime.now().minusDays(syncRetentionDays));
+        logger.info("Purged {} task tombstones", purged);
+    }
+}
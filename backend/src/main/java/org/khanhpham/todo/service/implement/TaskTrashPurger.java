@@ -0,0 +1,115 @@
+package org.khanhpham.todo.service.implement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.khanhpham.todo.repository.SubtaskRepository;
+import org.khanhpham.todo.repository.TaskOccurrenceRepository;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.TaskTagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes the tasks that have been in the trash for longer than the retention. Expired tasks are
+ * deleted by primary key in small chunks, each in its own short transaction with a pause after it, so
+ * no run holds row locks for long or sends one huge transaction through replication. A run stops after
+ * a bounded number of chunks and the next run picks up the rest.
+ * <p>
+ * The IDs of a chunk are read outside its transaction, so a task may be restored, or restored and
+ * trashed again, before the chunk runs. Every delete of the chunk therefore rechecks that the task is
+ * still in the trash since before the cutoff, and the checklist, tags and occurrence exceptions of a
+ * task are only deleted together with the task itself.
+ */
+@Component
+public class TaskTrashPurger {
+    private static final Logger logger = LoggerFactory.getLogger(TaskTrashPurger.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskOccurrenceRepository taskOccurrenceRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final TaskTagRepository taskTagRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purged;
+    private final Timer chunkTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Value("${app.tasks.trash.retention-days}")
+    private long retentionDays;
+
+    @Value("${app.tasks.trash.purge-chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.tasks.trash.purge-max-chunks}")
+    private int maxChunks;
+
+    @Value("${app.tasks.trash.purge-pause-ms}")
+    private long pauseMillis;
+
+    public TaskTrashPurger(TaskRepository taskRepository, TaskOccurrenceRepository taskOccurrenceRepository,
+                           SubtaskRepository subtaskRepository, TaskTagRepository taskTagRepository,
+                           TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.taskOccurrenceRepository = taskOccurrenceRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.taskTagRepository = taskTagRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.purged = Counter.builder("tasks.trash.purged").register(meterRegistry);
+        this.chunkTimer = Timer.builder("tasks.trash.purge.chunk").register(meterRegistry);
+        Gauge.builder("tasks.trash.backlog", backlog, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tasks.trash.purge-interval-ms}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        backlog.set(taskRepository.countTrashedBefore(cutoff));
+
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            List<Long> ids = taskRepository.findIdsTrashedBefore(cutoff, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer deleted = chunkTimer.record(() ->
+                    transactionTemplate.execute(status -> {
+                        taskOccurrenceRepository.deleteOfTasksTrashedBefore(ids, cutoff);
+                        subtaskRepository.deleteOfTasksTrashedBefore(ids, cutoff);
+                        taskTagRepository.deleteOfTasksTrashedBefore(ids, cutoff);
+                        return taskRepository.deleteTrashed(ids, cutoff);
+                    }));
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            purged.increment(count);
+            backlog.updateAndGet(remaining -> Math.max(0, remaining - count));
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Purged {} tasks from the trash, {} expired tasks left", total, backlog.get());
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -3,12 +3,12 @@ package org.khanhpham.todo.service.implement;
 import org.khanhpham.todo.common.TokenType;
 import org.khanhpham.todo.entity.Token;
 import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.mapper.TokenMapper;
 import org.khanhpham.todo.payload.dto.TokenDTO;
 import org.khanhpham.todo.payload.request.TokenRequest;
 import org.khanhpham.todo.repository.TokenRepository;
 import org.khanhpham.todo.repository.UserRepository;
 import org.khanhpham.todo.service.TokenService;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -22,22 +22,20 @@ import java.util.UUID;
 public class TokenServiceImpl implements TokenService {
     private final TokenRepository tokenRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final TokenMapper tokenMapper;
 
-    public TokenServiceImpl(TokenRepository tokenRepository, UserRepository userRepository, ModelMapper modelMapper) {
+    public TokenServiceImpl(TokenRepository tokenRepository, UserRepository userRepository, TokenMapper tokenMapper) {
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.tokenMapper = tokenMapper;
     }
 
     private TokenDTO convertToDTO(Token token) {
-        TokenDTO tokenDTO = modelMapper.map(token, TokenDTO.class);
-        tokenDTO.setUserId(token.getUser().getId());
-        return tokenDTO;
+        return tokenMapper.toDto(token);
     }
 
     private Token convertToEntity(TokenRequest tokenRequest) {
-        return modelMapper.map(tokenRequest, Token.class);
+        return tokenMapper.toEntity(tokenRequest);
     }
 
     /**
@@ -1,23 +1,28 @@
 package org.khanhpham.todo.service.implement;
 
 import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.event.UserChangedEvent;
 import org.khanhpham.todo.exception.ResourceNotFoundException;
+import org.khanhpham.todo.mapper.UserMapper;
 import org.khanhpham.todo.payload.dto.UserDTO;
 import org.khanhpham.todo.repository.UserRepository;
 import org.khanhpham.todo.service.UserService;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserServiceImpl(UserRepository userRepository, ModelMapper modelMapper) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -27,7 +32,7 @@ public class UserServiceImpl implements UserService {
      * @return the corresponding UserDTO object
      */
     private UserDTO convertToDTO(User user) {
-        return modelMapper.map(user, UserDTO.class);
+        return userMapper.toDto(user);
     }
 
     /**
@@ -86,9 +91,11 @@ public class UserServiceImpl implements UserService {
      * @return the newly created User entity
      */
     @Override
+    @Transactional
     public User createUser(String email, String username) {
-        User user = convertToEntity(email, username);
-        return userRepository.save(user);
+        User user = userRepository.save(convertToEntity(email, username));
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        return user;
     }
 
     /**
@@ -105,9 +112,11 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void changePassword(String username, String password) {
         User user = userRepository.findByUsername(username);
         user.setPassword(password);
         convertToDTO(userRepository.save(user));
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 }
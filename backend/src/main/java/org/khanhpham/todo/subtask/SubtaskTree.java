@@ -0,0 +1,92 @@
+package org.khanhpham.todo.subtask;
+
+import org.khanhpham.todo.entity.Subtask;
+import org.khanhpham.todo.payload.dto.SubtaskDTO;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.repository.SubtaskRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles the checklists of tasks. The items of any number of tasks are read with one query on their
+ * task ID, then linked to their parents and rolled up in memory, so a page of tasks costs one extra
+ * query whatever the number and depth of the items.
+ */
+@Component
+public class SubtaskTree {
+    private static final Comparator<Subtask> POSITION = Comparator.comparingInt(Subtask::getPosition)
+            .thenComparing(Subtask::getId);
+
+    private final SubtaskRepository subtaskRepository;
+
+    public SubtaskTree(SubtaskRepository subtaskRepository) {
+        this.subtaskRepository = subtaskRepository;
+    }
+
+    /**
+     * Sets the subtasks, child count and progress of every task with a single query.
+     */
+    public void attach(List<TaskDTO> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Subtask>> items = new HashMap<>();
+        for (Subtask subtask : subtaskRepository.findByTaskIdIn(tasks.stream().map(TaskDTO::getId).toList())) {
+            items.computeIfAbsent(subtask.getTaskId(), id -> new ArrayList<>()).add(subtask);
+        }
+        tasks.forEach(task -> attach(task, items.getOrDefault(task.getId(), List.of())));
+    }
+
+    /**
+     * Sets the subtasks, child count and progress of a task from its items, already loaded.
+     */
+    public static void attach(TaskDTO task, List<Subtask> items) {
+        Map<Long, List<Subtask>> children = new HashMap<>();
+        for (Subtask item : items) {
+            children.computeIfAbsent(item.getParentId(), id -> new ArrayList<>()).add(item);
+        }
+        children.values().forEach(siblings -> siblings.sort(POSITION));
+
+        List<SubtaskDTO> roots = new ArrayList<>();
+        int leaves = 0;
+        int completed = 0;
+        for (Subtask root : children.getOrDefault(null, List.of())) {
+            Rollup rollup = build(root, children, roots);
+            leaves += rollup.leaves();
+            completed += rollup.completed();
+        }
+        task.setSubtasks(roots);
+        task.setSubtaskCount(roots.size());
+        task.setProgress(leaves > 0 ? completed * 100 / leaves : null);
+    }
+
+    /**
+     * Describes an item and everything nested under it, adds it to {@code siblings} and returns how
+     * many of the items without children below it are completed.
+     */
+    private static Rollup build(Subtask item, Map<Long, List<Subtask>> children, List<SubtaskDTO> siblings) {
+        List<SubtaskDTO> nested = new ArrayList<>();
+        int leaves = 0;
+        int completed = 0;
+        for (Subtask child : children.getOrDefault(item.getId(), List.of())) {
+            Rollup rollup = build(child, children, nested);
+            leaves += rollup.leaves();
+            completed += rollup.completed();
+        }
+        if (nested.isEmpty()) {
+            leaves = 1;
+            completed = item.isCompleted() ? 1 : 0;
+        }
+        siblings.add(new SubtaskDTO(item.getId(), item.getParentId(), item.getTitle(), completed == leaves,
+                item.getPosition(), nested.size(), completed * 100 / leaves, nested));
+        return new Rollup(leaves, completed);
+    }
+
+    private record Rollup(int leaves, int completed) {
+    }
+}
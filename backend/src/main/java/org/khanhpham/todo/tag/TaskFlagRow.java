@@ -0,0 +1,7 @@
+package org.khanhpham.todo.tag;
+
+/**
+ * The flags of a live task as the tag index loads them, read without hydrating entities.
+ */
+public record TaskFlagRow(Long id, Long userId, boolean completed, boolean important) {
+}
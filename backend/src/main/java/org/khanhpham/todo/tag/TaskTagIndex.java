@@ -0,0 +1,145 @@
+package org.khanhpham.todo.tag;
+
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process bitmap index over the tags and flags of tasks, partitioned per user, which answers tag
+ * queries before any row is read. It is kept current from {@link TaskChangedEvent}s, where a task whose
+ * tags are {@code null} keeps the tags it had, and rebuilt at startup by {@link TaskTagIndexLoader}.
+ */
+@Component
+public class TaskTagIndex {
+    private volatile Map<Long, UserTagIndex> indexes = new ConcurrentHashMap<>();
+
+    // Non-null only while a rebuild is running
+    private volatile Map<Long, UserTagIndex> rebuilding;
+    private volatile Set<Long> touchedDuringRebuild;
+
+    /**
+     * Trims and lower-cases tag names, dropping blank ones.
+     *
+     * @return the distinct names in alphabetical order, empty if {@code names} is {@code null}
+     */
+    public static SortedSet<String> normalize(Collection<String> names) {
+        SortedSet<String> normalized = new TreeSet<>();
+        if (names != null) {
+            names.stream()
+                    .filter(name -> name != null && !name.isBlank())
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .forEach(normalized::add);
+        }
+        return normalized;
+    }
+
+    /**
+     * Applies a task mutation to the index.
+     *
+     * @param event the mutation published by the task service
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskDTO after = event.after();
+        synchronized (this) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(event.taskId());
+            }
+            apply(indexes, event.userId(), event.taskId(), after);
+            if (rebuilding != null) {
+                apply(rebuilding, event.userId(), event.taskId(), after);
+            }
+        }
+    }
+
+    /**
+     * Finds the user's tasks matching a tag query.
+     *
+     * @param userId    the owner of the tasks
+     * @param all       tags every matching task carries
+     * @param any       tags of which a matching task carries at least one, ignored when empty
+     * @param none      tags no matching task carries
+     * @param completed the completion state of matching tasks, {@code null} for either
+     * @param important the importance of matching tasks, {@code null} for either
+     * @param limit     the maximum number of task IDs to return
+     * @return the number of matches and the IDs of the newest of them
+     */
+    public TaskTagMatch query(Long userId, Collection<String> all, Collection<String> any, Collection<String> none,
+                              Boolean completed, Boolean important, int limit) {
+        UserTagIndex index = indexes.get(userId);
+        if (index == null) {
+            return new TaskTagMatch(0, List.of());
+        }
+        return index.query(normalize(all), normalize(any), normalize(none), completed, important, limit);
+    }
+
+    /**
+     * Counts the user's tasks per tag.
+     *
+     * @return the number of tasks carrying each tag, by tag name
+     */
+    public Map<String, Long> counts(Long userId) {
+        UserTagIndex index = indexes.get(userId);
+        return index != null ? index.counts() : Map.of();
+    }
+
+    synchronized void beginRebuild() {
+        rebuilding = new ConcurrentHashMap<>();
+        touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    }
+
+    void loadTask(TaskFlagRow row) {
+        Map<Long, UserTagIndex> target = rebuilding;
+        Set<Long> touched = touchedDuringRebuild;
+        // A task changed by a request since the rebuild started is already current in the new index
+        if (target != null && !touched.contains(row.id())) {
+            target.computeIfAbsent(row.userId(), id -> new UserTagIndex())
+                    .put(row.id(), row.completed(), row.important(), null);
+        }
+    }
+
+    void loadTag(TaskTagRow row) {
+        Map<Long, UserTagIndex> target = rebuilding;
+        Set<Long> touched = touchedDuringRebuild;
+        if (target != null && !touched.contains(row.taskId())) {
+            UserTagIndex index = target.get(row.userId());
+            if (index != null) {
+                index.addTag(row.taskId(), row.name());
+            }
+        }
+    }
+
+    synchronized void finishRebuild() {
+        indexes = rebuilding;
+        rebuilding = null;
+        touchedDuringRebuild = null;
+    }
+
+    synchronized void abortRebuild() {
+        rebuilding = null;
+        touchedDuringRebuild = null;
+    }
+
+    private static void apply(Map<Long, UserTagIndex> target, Long userId, Long taskId, TaskDTO after) {
+        if (after == null) {
+            UserTagIndex index = target.get(userId);
+            if (index != null) {
+                index.remove(taskId);
+            }
+        } else {
+            target.computeIfAbsent(userId, id -> new UserTagIndex())
+                    .put(taskId, after.isCompleted(), after.isImportant(), after.getTags());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.khanhpham.todo.tag;
+
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.TaskTagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the {@link TaskTagIndex} once the application has started: the flags of the live tasks
+ * first, then their tags, both streamed through forward-only cursors as plain projections.
+ */
+@Component
+public class TaskTagIndexLoader {
+    private static final Logger logger = LoggerFactory.getLogger(TaskTagIndexLoader.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskTagRepository taskTagRepository;
+    private final TaskTagIndex taskTagIndex;
+
+    public TaskTagIndexLoader(TaskRepository taskRepository, TaskTagRepository taskTagRepository, TaskTagIndex taskTagIndex) {
+        this.taskRepository = taskRepository;
+        this.taskTagRepository = taskTagRepository;
+        this.taskTagIndex = taskTagIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long tasks = 0;
+        long tags = 0;
+        taskTagIndex.beginRebuild();
+        try {
+            try (Stream<TaskFlagRow> rows = taskRepository.streamFlagRows()) {
+                for (TaskFlagRow row : (Iterable<TaskFlagRow>) rows::iterator) {
+                    taskTagIndex.loadTask(row);
+                    tasks++;
+                }
+            }
+            try (Stream<TaskTagRow> rows = taskTagRepository.streamTagRows()) {
+                for (TaskTagRow row : (Iterable<TaskTagRow>) rows::iterator) {
+                    taskTagIndex.loadTag(row);
+                    tags++;
+                }
+            }
+            taskTagIndex.finishRebuild();
+        } catch (RuntimeException e) {
+            taskTagIndex.abortRebuild();
+            throw e;
+        }
+        logger.info("Indexed {} tags of {} tasks in {} ms", tags, tasks, System.currentTimeMillis() - start);
+    }
+}
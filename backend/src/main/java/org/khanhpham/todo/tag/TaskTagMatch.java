@@ -0,0 +1,9 @@
+package org.khanhpham.todo.tag;
+
+import java.util.List;
+
+/**
+ * Result of a tag query: how many tasks matched, and the IDs of the newest of them.
+ */
+public record TaskTagMatch(long total, List<Long> ids) {
+}
@@ -0,0 +1,7 @@
+package org.khanhpham.todo.tag;
+
+/**
+ * A tag of a task as the tag index loads it, read without hydrating entities.
+ */
+public record TaskTagRow(Long taskId, Long userId, String name) {
+}
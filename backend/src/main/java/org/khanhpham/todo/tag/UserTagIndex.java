@@ -0,0 +1,174 @@
+package org.khanhpham.todo.tag;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compressed bitmaps over the tasks of one user: one per tag and one per flag. Every task gets a dense
+ * ordinal, reused after the task is removed, so the bitmaps stay small and a query is a handful of
+ * word-wise ANDs and ORs. All methods are guarded by the instance monitor.
+ */
+final class UserTagIndex {
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] taskIds = new long[16];
+    private int nextOrdinal;
+    private final RoaringBitmap free = new RoaringBitmap();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap completed = new RoaringBitmap();
+    private final RoaringBitmap important = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> tags = new HashMap<>();
+
+    /**
+     * Adds or updates a task. Its tags are replaced when {@code taskTags} is set and kept otherwise.
+     */
+    synchronized void put(Long taskId, boolean isCompleted, boolean isImportant, Collection<String> taskTags) {
+        int ordinal = ordinals.computeIfAbsent(taskId, this::allocate);
+        set(completed, ordinal, isCompleted);
+        set(important, ordinal, isImportant);
+        if (taskTags != null) {
+            clearTags(ordinal);
+            taskTags.forEach(tag -> tags.computeIfAbsent(tag, t -> new RoaringBitmap()).add(ordinal));
+        }
+    }
+
+    /**
+     * Adds a tag to a task already in the index; tags of unknown tasks are ignored.
+     */
+    synchronized void addTag(Long taskId, String tag) {
+        Integer ordinal = ordinals.get(taskId);
+        if (ordinal != null) {
+            tags.computeIfAbsent(tag, t -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    synchronized void remove(Long taskId) {
+        Integer ordinal = ordinals.remove(taskId);
+        if (ordinal == null) {
+            return;
+        }
+        live.remove(ordinal);
+        completed.remove(ordinal);
+        important.remove(ordinal);
+        clearTags(ordinal);
+        free.add(ordinal);
+    }
+
+    /**
+     * Number of tasks carrying every tag of the user.
+     */
+    synchronized Map<String, Long> counts() {
+        Map<String, Long> counts = new TreeMap<>();
+        tags.forEach((tag, bitmap) -> counts.put(tag, bitmap.getLongCardinality()));
+        return counts;
+    }
+
+    /**
+     * Finds the tasks carrying every tag of {@code all}, at least one tag of {@code any} when it is not
+     * empty, and none of {@code none}, with the given flags when they are set.
+     *
+     * @return the number of matches and the IDs of the newest {@code limit} of them, newest first
+     */
+    synchronized TaskTagMatch query(Set<String> all, Set<String> any, Set<String> none,
+                                    Boolean isCompleted, Boolean isImportant, int limit) {
+        RoaringBitmap match;
+        if (all.isEmpty()) {
+            match = live.clone();
+        } else {
+            // Start from the rarest tag, so every following AND works on the smallest bitmap
+            List<RoaringBitmap> required = new ArrayList<>(all.stream().map(this::bitmap).toList());
+            required.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            match = required.get(0).clone();
+            for (int i = 1; i < required.size() && !match.isEmpty(); i++) {
+                match.and(required.get(i));
+            }
+        }
+        if (!any.isEmpty()) {
+            match.and(union(any));
+        }
+        if (!none.isEmpty()) {
+            match.andNot(union(none));
+        }
+        filter(match, completed, isCompleted);
+        filter(match, important, isImportant);
+
+        // IDs are time ordered, so the largest are the newest
+        PriorityQueue<Long> newest = new PriorityQueue<>();
+        match.forEach((int ordinal) -> {
+            newest.add(taskIds[ordinal]);
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        });
+        List<Long> ids = new ArrayList<>(newest);
+        ids.sort(Comparator.reverseOrder());
+        return new TaskTagMatch(match.getLongCardinality(), ids);
+    }
+
+    private int allocate(Long taskId) {
+        int ordinal;
+        if (!free.isEmpty()) {
+            ordinal = free.first();
+            free.remove(ordinal);
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == taskIds.length) {
+                taskIds = Arrays.copyOf(taskIds, ordinal * 2);
+            }
+        }
+        taskIds[ordinal] = taskId;
+        live.add(ordinal);
+        return ordinal;
+    }
+
+    private void clearTags(int ordinal) {
+        Iterator<RoaringBitmap> bitmaps = tags.values().iterator();
+        while (bitmaps.hasNext()) {
+            RoaringBitmap bitmap = bitmaps.next();
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove();
+            }
+        }
+    }
+
+    private RoaringBitmap bitmap(String tag) {
+        RoaringBitmap bitmap = tags.get(tag);
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private RoaringBitmap union(Set<String> names) {
+        RoaringBitmap union = new RoaringBitmap();
+        names.forEach(tag -> union.or(bitmap(tag)));
+        return union;
+    }
+
+    private static void filter(RoaringBitmap match, RoaringBitmap flag, Boolean value) {
+        if (value == null) {
+            return;
+        }
+        if (value) {
+            match.and(flag);
+        } else {
+            match.andNot(flag);
+        }
+    }
+
+    private static void set(RoaringBitmap bitmap, int ordinal, boolean value) {
+        if (value) {
+            bitmap.add(ordinal);
+        } else {
+            bitmap.remove(ordinal);
+        }
+    }
+}
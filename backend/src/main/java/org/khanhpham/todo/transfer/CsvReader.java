@@ -0,0 +1,92 @@
+package org.khanhpham.todo.transfer;
+
+import org.khanhpham.todo.exception.CustomException;
+import org.springframework.http.HttpStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time. Fields may be quoted, quoted fields may contain commas,
+ * line breaks and doubled quotes, and lines may end with CRLF or LF. Only the current record is held
+ * in memory, and a single field is capped at {@link #MAX_FIELD_LENGTH} characters so a malformed
+ * file cannot make it grow without bound.
+ */
+public class CsvReader implements Closeable {
+    static final int MAX_FIELD_LENGTH = 65_536;
+
+    private final Reader reader;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the fields of the record, or {@code null} at the end of the input
+     * @throws CustomException if a quoted field is not terminated or a field is too long
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new CustomException(HttpStatus.BAD_REQUEST, "Unterminated quoted CSV field");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                append(field, c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                append(field, c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    private static void append(StringBuilder field, int c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "CSV field longer than " + MAX_FIELD_LENGTH + " characters");
+        }
+        field.append((char) c);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,80 @@
+package org.khanhpham.todo.transfer;
+
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.request.TaskImportRow;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads tasks from CSV. The first record is a header naming the columns; {@code title} is required,
+ * {@code description}, {@code date} ({@code yyyy-MM-dd}), {@code time} ({@code HH:mm}),
+ * {@code important} and {@code completed} are optional, and other columns are ignored, so a file
+ * written by the export can be imported again.
+ */
+public class CsvTaskRowReader implements TaskRowReader {
+    private final CsvReader csv;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long number;
+
+    public CsvTaskRowReader(CsvReader csv) throws IOException {
+        this.csv = csv;
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "CSV header is missing");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "CSV header has no title column");
+        }
+    }
+
+    @Override
+    public TaskRow next() throws IOException {
+        List<String> record;
+        do {
+            record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        number++;
+        try {
+            TaskImportRow task = new TaskImportRow();
+            task.setTitle(field(record, "title"));
+            task.setDescription(field(record, "description"));
+            String date = field(record, "date");
+            task.setDate(date == null ? null : LocalDate.parse(date));
+            String time = field(record, "time");
+            task.setTime(time == null ? null : LocalTime.parse(time));
+            task.setImportant(Boolean.parseBoolean(field(record, "important")));
+            task.setCompleted(Boolean.parseBoolean(field(record, "completed")));
+            return new TaskRow(number, task, null);
+        } catch (DateTimeParseException e) {
+            return new TaskRow(number, null, "Invalid date or time: " + e.getParsedString());
+        }
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
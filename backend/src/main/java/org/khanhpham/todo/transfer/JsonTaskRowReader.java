@@ -0,0 +1,59 @@
+package org.khanhpham.todo.transfer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.request.TaskImportRow;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+
+/**
+ * Reads tasks from either one JSON array of task objects or a sequence of task objects, one per line
+ * as in NDJSON. The parser walks the input token by token and only materializes one task object at a
+ * time; an object whose fields have the wrong type is reported as a rejected row, while broken JSON
+ * syntax ends the import.
+ */
+public class JsonTaskRowReader implements TaskRowReader {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final boolean array;
+    private long number;
+
+    public JsonTaskRowReader(ObjectMapper objectMapper, JsonParser parser) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = parser;
+        JsonToken first = parser.nextToken();
+        this.array = first == JsonToken.START_ARRAY;
+        if (array) {
+            parser.nextToken();
+        }
+    }
+
+    @Override
+    public TaskRow next() throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new CustomException(HttpStatus.BAD_REQUEST, "Expected a task object at " + parser.currentLocation());
+        }
+        JsonNode node = parser.readValueAsTree();
+        parser.nextToken();
+        number++;
+        try {
+            return new TaskRow(number, objectMapper.treeToValue(node, TaskImportRow.class), null);
+        } catch (JsonProcessingException e) {
+            return new TaskRow(number, null, e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,115 @@
+package org.khanhpham.todo.transfer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.service.TaskService;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes a user's tasks to an output stream as CSV, one JSON array or NDJSON while the rows are read
+ * from the database cursor behind {@link TaskService#streamTasks}. The output is flushed after the
+ * first task, so the client sees data straight away, and then every {@link #FLUSH_INTERVAL} tasks.
+ * A failed write, which is how a disconnected client shows up, stops the query.
+ */
+@Component
+public class TaskExporter {
+    static final String[] CSV_HEADER = {
+            "id", "title", "description", "date", "time", "important", "completed", "createdDate", "updatedDate"
+    };
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+
+    public TaskExporter(TaskService taskService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every task of the user matching the filter.
+     *
+     * @param userId       the ID of the user whose tasks are exported
+     * @param filter       the filter criteria, all optional
+     * @param format       the format to write
+     * @param outputStream the stream to write to; it is closed afterwards
+     */
+    public void export(Long userId, TaskFilterRequest filter, TaskFileFormat format, OutputStream outputStream) throws IOException {
+        try {
+            if (format == TaskFileFormat.CSV) {
+                exportCsv(userId, filter, outputStream);
+            } else {
+                exportJson(userId, filter, format == TaskFileFormat.NDJSON, outputStream);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void exportCsv(Long userId, TaskFilterRequest filter, OutputStream outputStream) throws IOException {
+        try (CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)))) {
+            csv.writeRecord(CSV_HEADER);
+            taskService.streamTasks(userId, filter, flushing(csv::flush, task -> csv.writeRecord(
+                    String.valueOf(task.getId()),
+                    task.getTitle(),
+                    task.getDescription(),
+                    task.getDate() == null ? null : task.getDate().toString(),
+                    task.getTime() == null ? null : task.getTime().toString(),
+                    String.valueOf(task.isImportant()),
+                    String.valueOf(task.isCompleted()),
+                    task.getCreatedDate(),
+                    task.getUpdatedDate())));
+        }
+    }
+
+    private void exportJson(Long userId, TaskFilterRequest filter, boolean ndjson, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            taskService.streamTasks(userId, filter, flushing(generator::flush, task -> {
+                generator.writeObject(task);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+            }));
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private static Consumer<TaskDTO> flushing(IoAction flush, IoConsumer<TaskDTO> write) {
+        long[] written = {0};
+        return task -> {
+            try {
+                write.accept(task);
+                if (++written[0] % FLUSH_INTERVAL == 1) {
+                    flush.run();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface IoConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+}
@@ -0,0 +1,54 @@
+package org.khanhpham.todo.transfer;
+
+import org.khanhpham.todo.exception.CustomException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+/**
+ * File formats tasks can be imported from and exported to.
+ */
+public enum TaskFileFormat {
+    CSV("text/csv", "csv"),
+    JSON("application/json", "json"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    TaskFileFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolves the format from a file extension or name such as {@code csv} or {@code ndjson}.
+     */
+    public static TaskFileFormat fromName(String name) {
+        for (TaskFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new CustomException(HttpStatus.BAD_REQUEST, "Unsupported format: " + name);
+    }
+
+    /**
+     * Resolves the format from the media type of an upload, ignoring parameters such as the charset.
+     */
+    public static TaskFileFormat fromMediaType(MediaType mediaType) {
+        for (TaskFileFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType) && !mediaType.isWildcardSubtype()) {
+                return format;
+            }
+        }
+        throw new CustomException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported content type: " + mediaType);
+    }
+}
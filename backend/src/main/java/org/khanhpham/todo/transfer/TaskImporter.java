@@ -0,0 +1,199 @@
+package org.khanhpham.todo.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.TaskTag;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.mapper.TaskMapper;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.khanhpham.todo.payload.request.TaskImportRow;
+import org.khanhpham.todo.payload.response.TaskImportError;
+import org.khanhpham.todo.payload.response.TaskImportProgress;
+import org.khanhpham.todo.recurrence.RecurrenceRule;
+import org.khanhpham.todo.repository.TaskRepository;
+import org.khanhpham.todo.repository.TaskTagRepository;
+import org.khanhpham.todo.repository.UserRepository;
+import org.khanhpham.todo.tag.TaskTagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tasks from an uploaded file. Rows are validated against the {@code TaskRequest}
+ * constraints as they are read, and every batch of a fixed number of rows read has its valid ones
+ * inserted in its own transaction, so neither the persistence context, the list of pending rows nor the
+ * list of errors grows with the file. After every batch the caller receives a progress report with the
+ * rows rejected since the previous one.
+ */
+@Component
+public class TaskImporter {
+    private static final Logger logger = LoggerFactory.getLogger(TaskImporter.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskTagRepository taskTagRepository;
+    private final UserRepository userRepository;
+    private final TaskMapper taskMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.tasks.import.batch-size}")
+    private int batchSize;
+
+    public TaskImporter(TaskRepository taskRepository, TaskTagRepository taskTagRepository, UserRepository userRepository,
+                        TaskMapper taskMapper, Validator validator, TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.taskRepository = taskRepository;
+        this.taskTagRepository = taskTagRepository;
+        this.userRepository = userRepository;
+        this.taskMapper = taskMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads every row, inserts the valid ones for the user and reports progress. A file that becomes
+     * unreadable stops the import; the valid rows read until then are kept and the final report says
+     * why the import stopped.
+     *
+     * @param userId      the ID of the user who owns the imported tasks
+     * @param inputStream the uploaded file; it is closed afterwards
+     * @param format      the format of the file, CSV, a JSON array or NDJSON
+     * @param charset     the character set of a CSV file
+     * @param progress    receives a report after every batch and a final one with {@code done} set
+     */
+    public void importTasks(Long userId, InputStream inputStream, TaskFileFormat format, Charset charset,
+                            Consumer<TaskImportProgress> progress) {
+        List<Task> batch = new ArrayList<>(batchSize);
+        List<Set<String>> batchTags = new ArrayList<>(batchSize);
+        List<TaskImportError> errors = new ArrayList<>();
+        long processed = 0;
+        long imported = 0;
+        long rejected = 0;
+        String failure = null;
+
+        try (TaskRowReader reader = openReader(inputStream, format, charset)) {
+            TaskRow row;
+            while ((row = reader.next()) != null) {
+                processed++;
+                String error = row.error() != null ? row.error() : validate(row.task());
+                Task task = null;
+                if (error == null) {
+                    try {
+                        task = toEntity(row.task());
+                    } catch (CustomException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (error != null) {
+                    errors.add(new TaskImportError(row.number(), error));
+                    rejected++;
+                } else {
+                    batch.add(task);
+                    batchTags.add(TaskTagIndex.normalize(row.task().getTags()));
+                }
+                // Counted in rows read, valid or not, so a mostly invalid file neither piles up errors nor goes quiet
+                if (processed % batchSize == 0) {
+                    if (!batch.isEmpty()) {
+                        imported += insert(userId, batch, batchTags);
+                    }
+                    progress.accept(new TaskImportProgress(processed, imported, rejected, List.copyOf(errors), false, null));
+                    batch.clear();
+                    batchTags.clear();
+                    errors.clear();
+                }
+            }
+        } catch (CustomException e) {
+            failure = e.getMessage();
+        } catch (IOException e) {
+            failure = "Could not read the upload: " + e.getMessage();
+        }
+
+        if (!batch.isEmpty()) {
+            imported += insert(userId, batch, batchTags);
+            batch.clear();
+            batchTags.clear();
+        }
+        if (failure != null) {
+            logger.info("Import for user {} stopped after {} rows: {}", userId, processed, failure);
+        }
+        progress.accept(new TaskImportProgress(processed, imported, rejected, List.copyOf(errors), true, failure));
+    }
+
+    private TaskRowReader openReader(InputStream inputStream, TaskFileFormat format, Charset charset) throws IOException {
+        if (format == TaskFileFormat.CSV) {
+            return new CsvTaskRowReader(new CsvReader(new BufferedReader(new InputStreamReader(inputStream, charset))));
+        }
+        return new JsonTaskRowReader(objectMapper, objectMapper.getFactory().createParser(inputStream));
+    }
+
+    private String validate(TaskImportRow task) {
+        Set<ConstraintViolation<TaskImportRow>> violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Task toEntity(TaskImportRow row) {
+        Task task = taskMapper.toEntity(row);
+        task.setImportant(row.isImportant());
+        task.setCompleted(row.isCompleted());
+        RecurrenceRule.store(task, RecurrenceRule.of(row.getDate(), row.getRecurrence()));
+        LocalDateTime now = LocalDateTime.now();
+        task.setCreatedDate(now);
+        task.setUpdatedDate(now);
+        return task;
+    }
+
+    /**
+     * Inserts one batch in its own transaction. The IDs are assigned by the application, so the inserts
+     * go out as JDBC batches, and the owner is set through a reference instead of being loaded.
+     * {@code tags} holds the tags of every task of the batch, in the same order.
+     */
+    private int insert(Long userId, List<Task> batch, List<Set<String>> tags) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.getReferenceById(userId);
+            batch.forEach(task -> task.setUser(user));
+            taskRepository.saveAll(batch);
+            List<TaskTag> taskTags = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Long taskId = batch.get(i).getId();
+                tags.get(i).forEach(name -> taskTags.add(new TaskTag(null, taskId, userId, name)));
+            }
+            taskTagRepository.saveAll(taskTags);
+            for (int i = 0; i < batch.size(); i++) {
+                TaskDTO created = taskMapper.toDto(batch.get(i));
+                created.setTags(tags.get(i));
+                eventPublisher.publishEvent(new TaskChangedEvent(TaskChangeType.CREATED, userId, created.getId(), null, created));
+            }
+        });
+        return batch.size();
+    }
+}
@@ -0,0 +1,13 @@
+package org.khanhpham.todo.transfer;
+
+import org.khanhpham.todo.payload.request.TaskImportRow;
+
+/**
+ * A row read from an import file: either the parsed task or why it could not be parsed.
+ *
+ * @param number position of the row in the file, starting at 1
+ * @param task   the parsed task, or {@code null} if the row is malformed
+ * @param error  why the row could not be parsed, or {@code null}
+ */
+public record TaskRow(long number, TaskImportRow task, String error) {
+}
@@ -0,0 +1,17 @@
+package org.khanhpham.todo.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the tasks of an import file one row at a time.
+ */
+public interface TaskRowReader extends Closeable {
+    /**
+     * Reads the next row. A row that cannot be turned into a task is returned with an error, and
+     * reading can go on; a file that cannot be read any further fails with an exception.
+     *
+     * @return the next row, or {@code null} at the end of the file
+     */
+    TaskRow next() throws IOException;
+}
@@ -3,7 +3,7 @@ package org.khanhpham.todo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.id.node-id=0")
 class ToDoApplicationTests {
 
     @Test
@@ -0,0 +1,115 @@
+package org.khanhpham.todo.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.repository.UserRepository;
+import org.khanhpham.todo.search.TaskSearchIndex;
+import org.khanhpham.todo.service.TaskService;
+import org.khanhpham.todo.tag.TaskTagIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that in-memory structures derived from the tasks only see a mutation once it commits: a read
+ * made while the mutation is still open is cached under the old version, and a rolled back mutation
+ * leaves no trace.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskChangeVisibilityTests {
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSetVersions taskSetVersions;
+
+    @Autowired
+    private TaskResponseCache taskResponseCache;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskTagIndex taskTagIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+    private Long taskId;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail(name + "@example.com");
+        user.setUsername(name);
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+        taskId = taskService.createTask(userId, task("Groceries", Set.of("home"))).getId();
+    }
+
+    @Test
+    void rolledBackUpdateLeavesVersionCacheAndIndexesUntouched() {
+        long version = taskSetVersions.current(userId);
+        String cached = readList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.updateTask(userId, taskId, task("Hardware", Set.of("work")), null);
+            // Another request reads the committed state while the update is open
+            assertThat(CompletableFuture.supplyAsync(this::readList).join()).isEqualTo(cached).contains("Groceries");
+            assertThat(taskSetVersions.current(userId)).isEqualTo(version);
+            status.setRollbackOnly();
+        });
+
+        assertThat(taskSetVersions.current(userId)).isEqualTo(version);
+        assertThat(readList()).isEqualTo(cached);
+        assertThat(taskSearchIndex.search(userId, "groceries", 10)).containsExactly(taskId);
+        assertThat(taskSearchIndex.search(userId, "hardware", 10)).isEmpty();
+        assertThat(taskTagIndex.query(userId, List.of("home"), List.of(), List.of(), null, null, 10).ids()).containsExactly(taskId);
+        assertThat(taskTagIndex.query(userId, List.of("work"), List.of(), List.of(), null, null, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void readDuringOpenUpdateIsNotServedAfterCommit() {
+        long version = taskSetVersions.current(userId);
+        readList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.updateTask(userId, taskId, task("Hardware", Set.of("work")), null);
+            assertThat(CompletableFuture.supplyAsync(this::readList).join()).contains("Groceries");
+        });
+
+        assertThat(taskSetVersions.current(userId)).isGreaterThan(version);
+        assertThat(readList()).contains("Hardware").doesNotContain("Groceries");
+        assertThat(taskSearchIndex.search(userId, "hardware", 10)).containsExactly(taskId);
+        assertThat(taskTagIndex.query(userId, List.of("work"), List.of(), List.of(), null, null, 10).ids()).containsExactly(taskId);
+        assertThat(taskTagIndex.query(userId, List.of("home"), List.of(), List.of(), null, null, 10).ids()).isEmpty();
+    }
+
+    private String readList() {
+        byte[] body = taskResponseCache.get(userId, "list", "", () -> taskService.getTasksByUserId(userId, null, null));
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static TaskRequest task(String title, Set<String> tags) {
+        return new TaskRequest(title, title + " list", LocalDate.now().plusDays(1), LocalTime.of(9, 0), null, tags);
+    }
+}
@@ -0,0 +1,154 @@
+package org.khanhpham.todo.changelog;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.ToDoApplication;
+import org.khanhpham.todo.cache.TaskResponseCache;
+import org.khanhpham.todo.cache.TaskSetVersions;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.repository.UserRepository;
+import org.khanhpham.todo.search.TaskSearchIndex;
+import org.khanhpham.todo.security.JwtTokenProvider;
+import org.khanhpham.todo.service.TaskService;
+import org.khanhpham.todo.tag.TaskTagIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs two nodes, each a full application context with its own {@code app.id.node-id}, against one
+ * in-memory database, and checks that a change made on one reaches the caches, indexes and event
+ * streams of the other through the change log.
+ */
+class ChangeLogPropagationTests {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        // The second node starts on the schema the first one created
+        nodeA = startNode(1, "create");
+        nodeB = startNode(2, "none");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void changeOnOneNodeReachesCachesIndexesAndStreamsOfTheOther() throws Exception {
+        User user = new User();
+        user.setEmail("nodes@example.com");
+        user.setUsername("nodes");
+        user.setPassword("secret");
+        Long userId = nodeA.getBean(UserRepository.class).save(user).getId();
+        Long taskId = nodeA.getBean(TaskService.class)
+                .createTask(userId, task("Groceries", Set.of("home"))).getId();
+
+        TaskSearchIndex searchIndexB = nodeB.getBean(TaskSearchIndex.class);
+        TaskTagIndex tagIndexB = nodeB.getBean(TaskTagIndex.class);
+        await().atMost(TIMEOUT).until(() -> searchIndexB.search(userId, "groceries", 10).contains(taskId));
+        assertThat(tagIndexB.query(userId, List.of("home"), List.of(), List.of(), null, null, 10).ids()).containsExactly(taskId);
+
+        // Node B caches the list and streams the user's changes
+        assertThat(readList(nodeB, userId)).contains("Groceries");
+        long versionB = nodeB.getBean(TaskSetVersions.class).current(userId);
+        BlockingQueue<String> events = openEventStream(nodeB, "nodes");
+        assertThat(events.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).startsWith("event:ready");
+
+        nodeA.getBean(TaskService.class)
+                .updateTask(userId, taskId, task("Hardware", Set.of("work")), null);
+
+        await().atMost(TIMEOUT).until(() -> nodeB.getBean(TaskSetVersions.class).current(userId) > versionB);
+        assertThat(readList(nodeB, userId)).contains("Hardware").doesNotContain("Groceries");
+        assertThat(searchIndexB.search(userId, "hardware", 10)).containsExactly(taskId);
+        assertThat(searchIndexB.search(userId, "groceries", 10)).isEmpty();
+        assertThat(tagIndexB.query(userId, List.of("work"), List.of(), List.of(), null, null, 10).ids()).containsExactly(taskId);
+        assertThat(tagIndexB.query(userId, List.of("home"), List.of(), List.of(), null, null, 10).ids()).isEmpty();
+        assertThat(awaitLine(events, "Hardware")).contains(taskId.toString());
+    }
+
+    private static ConfigurableApplicationContext startNode(int nodeId, String ddlAuto) {
+        // Passed as arguments, which take precedence over the test profile
+        return new SpringApplicationBuilder(ToDoApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:nodes;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--spring.jmx.enabled=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--server.port=0",
+                        "--app.id.node-id=" + nodeId,
+                        "--app.changelog.poll-interval-ms=50");
+    }
+
+    private static String readList(ConfigurableApplicationContext node, Long userId) {
+        TaskService taskService = node.getBean(TaskService.class);
+        byte[] body = node.getBean(TaskResponseCache.class)
+                .get(userId, "list", "", () -> taskService.getTasksByUserId(userId, null, null));
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens the task event stream of the user on a node, as a browser would, and queues its lines.
+     */
+    private static BlockingQueue<String> openEventStream(ConfigurableApplicationContext node, String username) {
+        UserDetails userDetails = node.getBean(UserDetailsService.class).loadUserByUsername(username);
+        String token = node.getBean(JwtTokenProvider.class).generateAccessToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        int port = node.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/tasks/events?access_token=" + token))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> response.body().filter(line -> !line.isBlank()).forEach(lines::add));
+        return lines;
+    }
+
+    private static String awaitLine(BlockingQueue<String> lines, String text) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            String line = lines.poll(100, TimeUnit.MILLISECONDS);
+            if (line != null && line.contains(text)) {
+                return line;
+            }
+        }
+        throw new AssertionError("No event containing " + text);
+    }
+
+    private static TaskRequest task(String title, Set<String> tags) {
+        return new TaskRequest(title, title + " list", LocalDate.now().plusDays(1), LocalTime.of(9, 0), null, tags);
+    }
+}
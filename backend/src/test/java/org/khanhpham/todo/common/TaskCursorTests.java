@@ -0,0 +1,91 @@
+package org.khanhpham.todo.common;
+
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that cursors survive a round trip through their URL-safe encoding and that anything else a
+ * client sends, including a cursor issued for the other sort order, is rejected as a bad request.
+ */
+class TaskCursorTests {
+    @Test
+    void decodesWhatItEncodes() {
+        TaskCursor cursor = new TaskCursor(TaskSortOrder.DATE_DESC, LocalDate.of(2026, 3, 14), LocalTime.of(9, 30, 15),
+                7_345_678_901_234_567L);
+
+        assertThat(TaskCursor.decode(cursor.encode(), TaskSortOrder.DATE_DESC)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSortOrder() {
+        String ascending = new TaskCursor(TaskSortOrder.DATE_ASC, LocalDate.of(2026, 3, 14), LocalTime.of(9, 30), 42L).encode();
+        String descending = new TaskCursor(TaskSortOrder.DATE_DESC, LocalDate.of(2026, 3, 14), LocalTime.of(9, 30), 42L).encode();
+
+        assertThatThrownBy(() -> TaskCursor.decode(ascending, TaskSortOrder.DATE_DESC))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> TaskCursor.decode(descending, TaskSortOrder.DATE_ASC))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void encodingIsUrlSafeWithoutPadding() {
+        // Most of these would contain '+', '/' or '=' in standard Base64
+        for (long id = 0; id < 200; id++) {
+            String encoded = new TaskCursor(TaskSortOrder.DATE_ASC, LocalDate.of(2026, 12, 31), LocalTime.of(23, 59), id).encode();
+
+            assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    void pointsAtTheLastTaskOfAPage() {
+        TaskDTO task = new TaskDTO();
+        task.setId(42L);
+        task.setDate(LocalDate.of(2026, 1, 5));
+        task.setTime(LocalTime.of(8, 0));
+
+        assertThat(TaskCursor.of(task, TaskSortOrder.DATE_ASC))
+                .isEqualTo(new TaskCursor(TaskSortOrder.DATE_ASC, LocalDate.of(2026, 1, 5), LocalTime.of(8, 0), 42L));
+    }
+
+    @Test
+    void missingCursorMeansTheFirstPage() {
+        assertThat(TaskCursor.decode(null, TaskSortOrder.DATE_ASC)).isNull();
+        assertThat(TaskCursor.decode("", TaskSortOrder.DATE_ASC)).isNull();
+        assertThat(TaskCursor.decode("  ", TaskSortOrder.DATE_ASC)).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertRejected("not base64!");
+        assertRejected(encode("2026-01-05|08:00|42"));
+        assertRejected(encode("DATE_ASC|2026-01-05|08:00"));
+        assertRejected(encode("DATE_ASC|2026-01-05|08:00|42|extra"));
+        assertRejected(encode("DATE_SIDEWAYS|2026-01-05|08:00|42"));
+        assertRejected(encode("DATE_ASC|2026-13-05|08:00|42"));
+        assertRejected(encode("DATE_ASC|2026-01-05|8 o'clock|42"));
+        assertRejected(encode("DATE_ASC|2026-01-05|08:00|forty-two"));
+        assertRejected(encode("DATE_ASC|null|08:00|42"));
+    }
+
+    private static void assertRejected(String cursor) {
+        assertThatThrownBy(() -> TaskCursor.decode(cursor, TaskSortOrder.DATE_ASC))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
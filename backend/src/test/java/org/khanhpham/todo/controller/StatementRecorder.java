@@ -0,0 +1,28 @@
+package org.khanhpham.todo.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL statements Hibernate prepares on the current thread, so a test can count the statements
+ * of one request while scheduled jobs run on other threads.
+ */
+public class StatementRecorder implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+}
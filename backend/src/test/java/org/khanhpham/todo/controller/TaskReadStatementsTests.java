@@ -0,0 +1,156 @@
+package org.khanhpham.todo.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.RecurrenceFrequency;
+import org.khanhpham.todo.entity.CustomUserDetails;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.payload.dto.RecurrenceDTO;
+import org.khanhpham.todo.payload.request.SubtaskRequest;
+import org.khanhpham.todo.payload.request.TaskRequest;
+import org.khanhpham.todo.repository.UserRepository;
+import org.khanhpham.todo.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each task read endpoint issues for one request, and checks that none of them
+ * reads the {@code users} table: the caller is already authenticated, and tasks carry their owner as a
+ * plain {@code user_id}.
+ * <p>
+ * A list of bare tasks is a single query. Pages and single tasks also carry their checklists and tags,
+ * which come with one more query each for the whole page, so the count does not grow with the page.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.khanhpham.todo.controller.StatementRecorder")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskReadStatementsTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private CustomUserDetails principal;
+    private Long userId;
+    private Long taskId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail(name + "@example.com");
+        user.setUsername(name);
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+        principal = new CustomUserDetails(userId, user.getEmail(), user.getPassword(),
+                List.of(new SimpleGrantedAuthority(user.getRole())));
+
+        today = LocalDate.now();
+        taskId = taskService.createTask(userId, task("Groceries", 1, Set.of("home"), null)).getId();
+        taskService.addSubtask(userId, taskId, new SubtaskRequest("Milk", null, null));
+        taskService.createTask(userId, task("Report", 2, Set.of("work", "urgent"), null));
+        taskService.createTask(userId, task("Call", 3, Set.of(), null));
+        taskService.createTask(userId, task("Standup", 1, Set.of("work"),
+                new RecurrenceDTO(RecurrenceFrequency.DAILY, 1, null, null, 5)));
+        StatementRecorder.clear();
+    }
+
+    @Test
+    void listIsOnePageQueryPlusOneForSubtasksAndOneForTags() throws Exception {
+        mockMvc.perform(get("/api/v1/tasks").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(4));
+
+        assertStatements(3);
+        assertStatementsReading("tasks", 1);
+        assertStatementsReading("subtasks", 1);
+        assertStatementsReading("task_tags", 1);
+    }
+
+    @Test
+    void listStatementsDoNotGrowWithThePage() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Long id = taskService.createTask(userId, task("Errand " + i, 4, Set.of("home", "errand"), null)).getId();
+            taskService.addSubtask(userId, id, new SubtaskRequest("Step", null, null));
+        }
+        StatementRecorder.clear();
+
+        mockMvc.perform(get("/api/v1/tasks").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(24));
+
+        assertStatements(3);
+    }
+
+    @Test
+    void trashListIsOneQuery() throws Exception {
+        taskService.deleteTask(userId, taskId);
+        StatementRecorder.clear();
+
+        mockMvc.perform(get("/api/v1/tasks/trash").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        assertStatements(1);
+    }
+
+    @Test
+    void agendaIsOneQueryForSeriesOneForTheirExceptionsAndOneForOtherTasks() throws Exception {
+        mockMvc.perform(get("/api/v1/tasks/agenda").with(user(principal))
+                        .param("from", today.plusDays(1).toString())
+                        .param("to", today.plusDays(3).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6));
+
+        assertStatements(3);
+    }
+
+    @Test
+    void singleTaskIsOneQueryPlusOneForSubtasksAndOneForTags() throws Exception {
+        mockMvc.perform(get("/api/v1/tasks/{id}", taskId).with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subtasks.length()").value(1))
+                .andExpect(jsonPath("$.tags[0]").value("home"));
+
+        assertStatements(3);
+    }
+
+    private static void assertStatements(int expected) {
+        List<String> statements = StatementRecorder.statements();
+        assertThat(statements).as("statements of the request: %s", statements).hasSize(expected);
+        assertThat(statements).noneMatch(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*\\b(from|join) users\\b.*"));
+    }
+
+    private static void assertStatementsReading(String table, int expected) {
+        assertThat(StatementRecorder.statements())
+                .filteredOn(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*\\bfrom " + table + "\\b.*"))
+                .hasSize(expected);
+    }
+
+    private TaskRequest task(String title, int inDays, Set<String> tags, RecurrenceDTO recurrence) {
+        return new TaskRequest(title, title + " notes", today.plusDays(inDays), LocalTime.of(9, 0), recurrence, tags);
+    }
+}
@@ -0,0 +1,144 @@
+package org.khanhpham.todo.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the layout of generated IDs and that they keep increasing when the sequence of a millisecond
+ * runs out or the clock moves backwards.
+ */
+class SnowflakeIdGeneratorTests {
+    private static final long NODE_ID = 5;
+    private static final int SEQUENCE_SIZE = 1 << SnowflakeIdGenerator.SEQUENCE_BITS;
+
+    private final AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(NODE_ID, clock::get);
+
+    @Test
+    void idCarriesMillisecondsNodeAndSequence() {
+        long first = idGenerator.nextId();
+        long second = idGenerator.nextId();
+
+        assertThat(millis(first)).isEqualTo(1_000L);
+        assertThat(node(first)).isEqualTo(NODE_ID);
+        assertThat(sequence(first)).isZero();
+        assertThat(millis(second)).isEqualTo(1_000L);
+        assertThat(sequence(second)).isEqualTo(1L);
+    }
+
+    @Test
+    void sequenceStartsAgainWhenTheClockMovesOn() {
+        idGenerator.nextId();
+        idGenerator.nextId();
+        clock.addAndGet(1);
+
+        long id = idGenerator.nextId();
+
+        assertThat(millis(id)).isEqualTo(1_001L);
+        assertThat(sequence(id)).isZero();
+    }
+
+    @Test
+    void exhaustedSequenceRollsOverIntoTheNextMillisecond() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= SEQUENCE_SIZE; i++) {
+            ids.add(idGenerator.nextId());
+        }
+
+        long last = ids.get(SEQUENCE_SIZE);
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(sequence(ids.get(SEQUENCE_SIZE - 1))).isEqualTo(SEQUENCE_SIZE - 1L);
+        assertThat(millis(last)).isEqualTo(1_001L);
+        assertThat(sequence(last)).isZero();
+
+        // Once the clock reaches the borrowed millisecond, counting goes on from where it was
+        clock.addAndGet(1);
+        long next = idGenerator.nextId();
+        assertThat(millis(next)).isEqualTo(1_001L);
+        assertThat(sequence(next)).isEqualTo(1L);
+    }
+
+    @Test
+    void clockMovingBackwardsNeverProducesASmallerId() {
+        long before = idGenerator.nextId();
+        clock.addAndGet(-500);
+
+        long during = idGenerator.nextId();
+
+        assertThat(during).isGreaterThan(before);
+        assertThat(millis(during)).isEqualTo(1_000L);
+        assertThat(sequence(during)).isEqualTo(1L);
+
+        clock.addAndGet(501);
+        long after = idGenerator.nextId();
+        assertThat(millis(after)).isEqualTo(1_001L);
+        assertThat(sequence(after)).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws Exception {
+        SnowflakeIdGenerator shared = new SnowflakeIdGenerator(NODE_ID);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(shared.nextId());
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void idsOfDifferentNodesDoNotCollide() {
+        SnowflakeIdGenerator other = new SnowflakeIdGenerator(NODE_ID + 1, clock::get);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(idGenerator.nextId());
+            ids.add(other.nextId());
+        }
+
+        assertThat(ids).hasSize(200);
+    }
+
+    @Test
+    void rejectsNodeIdOutsideItsBits() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long millis(long id) {
+        return id >>> (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS);
+    }
+
+    private static long node(long id) {
+        return (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID;
+    }
+
+    private static long sequence(long id) {
+        return id & (SEQUENCE_SIZE - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package org.khanhpham.todo.recurrence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.RecurrenceFrequency;
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.TaskOccurrence;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.mapper.TaskMapperImpl;
+import org.khanhpham.todo.payload.dto.RecurrenceDTO;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that an agenda range lists the occurrences moved into it, including those of series whose rule
+ * has no occurrence in the range.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RecurrenceExpander.class, TaskMapperImpl.class})
+class RecurrenceExpanderTests {
+    private static final LocalDate FROM = LocalDate.of(2026, 2, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 2, 28);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecurrenceExpander recurrenceExpander;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("planner@example.com");
+        user.setUsername("planner");
+        user.setPassword("secret");
+        entityManager.persistAndFlush(user);
+    }
+
+    @Test
+    void listsOccurrenceMovedIntoTheRangeFromASeriesThatEndedBefore() {
+        // Daily on January 5, 6 and 7, the last one moved into February
+        Task ended = recurring("Ended", LocalDate.of(2026, 1, 5), new RecurrenceDTO(RecurrenceFrequency.DAILY, 1, null, null, 3));
+        move(ended, LocalDate.of(2026, 1, 7), LocalDate.of(2026, 2, 10));
+
+        List<TaskDTO> agenda = recurrenceExpander.expand(user.getId(), FROM, TO);
+
+        assertThat(agenda).hasSize(1);
+        assertThat(agenda.get(0).getId()).isEqualTo(ended.getId());
+        assertThat(agenda.get(0).getDate()).isEqualTo(LocalDate.of(2026, 2, 10));
+        assertThat(agenda.get(0).getOccurrenceDate()).isEqualTo(LocalDate.of(2026, 1, 7));
+    }
+
+    @Test
+    void listsOccurrenceMovedIntoTheRangeFromASeriesThatStartsAfter() {
+        // Weekly from Monday March 2, the first one moved into February
+        Task later = recurring("Later", LocalDate.of(2026, 3, 2), new RecurrenceDTO(RecurrenceFrequency.WEEKLY, 1, null, null, null));
+        move(later, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 2, 20));
+
+        List<TaskDTO> agenda = recurrenceExpander.expand(user.getId(), FROM, TO);
+
+        assertThat(agenda).hasSize(1);
+        assertThat(agenda.get(0).getDate()).isEqualTo(LocalDate.of(2026, 2, 20));
+        assertThat(agenda.get(0).getOccurrenceDate()).isEqualTo(LocalDate.of(2026, 3, 2));
+    }
+
+    @Test
+    void leavesOutOccurrenceMovedOutOfTheRange() {
+        // Weekly on Tuesdays of February, the first one moved into March
+        Task weekly = recurring("Weekly", LocalDate.of(2026, 2, 3), new RecurrenceDTO(RecurrenceFrequency.WEEKLY, 1, null, null, 4));
+        move(weekly, LocalDate.of(2026, 2, 3), LocalDate.of(2026, 3, 3));
+
+        List<TaskDTO> agenda = recurrenceExpander.expand(user.getId(), FROM, TO);
+
+        assertThat(agenda.stream().map(TaskDTO::getDate).toList()).containsExactly(
+                LocalDate.of(2026, 2, 10), LocalDate.of(2026, 2, 17), LocalDate.of(2026, 2, 24));
+    }
+
+    @Test
+    void ignoresSeriesWithoutOccurrencesOrMovesInTheRange() {
+        Task ended = recurring("Ended", LocalDate.of(2026, 1, 5), new RecurrenceDTO(RecurrenceFrequency.DAILY, 1, null, null, 3));
+        move(ended, LocalDate.of(2026, 1, 6), LocalDate.of(2026, 1, 20));
+
+        assertThat(recurrenceExpander.expand(user.getId(), FROM, TO)).isEmpty();
+    }
+
+    private Task recurring(String title, LocalDate date, RecurrenceDTO recurrence) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription(title + " series");
+        task.setDate(date);
+        task.setTime(LocalTime.of(9, 0));
+        task.setUser(user);
+        RecurrenceRule.store(task, RecurrenceRule.of(date, recurrence));
+        return entityManager.persistAndFlush(task);
+    }
+
+    private void move(Task task, LocalDate occurrenceDate, LocalDate date) {
+        entityManager.persistAndFlush(new TaskOccurrence(null, task.getId(), user.getId(), occurrenceDate,
+                false, false, date, null));
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,144 @@
+package org.khanhpham.todo.recurrence;
+
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.RecurrenceFrequency;
+import org.khanhpham.todo.exception.CustomException;
+import org.khanhpham.todo.payload.dto.RecurrenceDTO;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.time.DayOfWeek.MONDAY;
+import static java.time.DayOfWeek.WEDNESDAY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the occurrences a rule produces for a window, in particular weekly day masks in series that skip
+ * weeks, monthly series on a day some months do not have, and the last date derived from a count.
+ */
+class RecurrenceRuleTests {
+    // A Wednesday; its week starts on Monday 2026-01-05
+    private static final LocalDate START = LocalDate.of(2026, 1, 7);
+
+    @Test
+    void weeklyMaskAppliesOnlyToEveryIntervalWeek() {
+        RecurrenceRule rule = RecurrenceRule.of(START, weekly(2, Set.of(MONDAY, WEDNESDAY), LocalDate.of(2026, 2, 20), null));
+
+        assertThat(between(rule, "2026-01-01", "2026-03-31")).containsExactly(
+                date("2026-01-07"), date("2026-01-19"), date("2026-01-21"),
+                date("2026-02-02"), date("2026-02-04"), date("2026-02-16"), date("2026-02-18"));
+    }
+
+    @Test
+    void weeklyWindowInsideTheSeriesStartsAtTheRightWeek() {
+        RecurrenceRule rule = RecurrenceRule.of(START, weekly(2, Set.of(MONDAY, WEDNESDAY), null, null));
+
+        assertThat(between(rule, "2026-01-12", "2026-01-25")).containsExactly(date("2026-01-19"), date("2026-01-21"));
+        assertThat(between(rule, "2026-05-04", "2026-05-10")).isEmpty();
+        assertThat(between(rule, "2026-05-11", "2026-05-17")).containsExactly(date("2026-05-11"), date("2026-05-13"));
+        assertThat(rule.occursOn(date("2026-01-12"))).isFalse();
+        assertThat(rule.occursOn(date("2026-01-19"))).isTrue();
+    }
+
+    @Test
+    void weeklyWithoutDaysRecursOnTheDayOfTheStart() {
+        RecurrenceRule rule = RecurrenceRule.of(START, weekly(1, null, null, null));
+
+        assertThat(between(rule, "2026-01-01", "2026-01-21"))
+                .containsExactly(date("2026-01-07"), date("2026-01-14"), date("2026-01-21"));
+        assertThat(rule.toDto().getByDay()).containsExactly(WEDNESDAY);
+    }
+
+    @Test
+    void monthlyOnTheThirtyFirstSkipsShorterMonths() {
+        RecurrenceRule rule = RecurrenceRule.of(date("2026-01-31"), monthly(1, null, null));
+
+        assertThat(between(rule, "2026-01-01", "2026-08-31")).containsExactly(
+                date("2026-01-31"), date("2026-03-31"), date("2026-05-31"), date("2026-07-31"), date("2026-08-31"));
+    }
+
+    @Test
+    void monthlyWithIntervalSkipsShorterMonthsWithoutShiftingThePeriod() {
+        RecurrenceRule rule = RecurrenceRule.of(date("2026-01-31"), monthly(2, null, null));
+
+        assertThat(between(rule, "2026-01-01", "2027-03-31")).containsExactly(
+                date("2026-01-31"), date("2026-03-31"), date("2026-05-31"), date("2026-07-31"),
+                date("2027-01-31"), date("2027-03-31"));
+    }
+
+    @Test
+    void countOfMonthlySeriesOnlyCountsMonthsThatHaveTheDay() {
+        RecurrenceRule rule = RecurrenceRule.of(date("2026-01-31"), monthly(1, null, 3));
+
+        assertThat(rule.end()).isEqualTo(date("2026-05-31"));
+        assertThat(between(rule, "2026-01-01", "2026-12-31"))
+                .containsExactly(date("2026-01-31"), date("2026-03-31"), date("2026-05-31"));
+    }
+
+    @Test
+    void countOfWeeklySeriesEndsOnItsLastOccurrence() {
+        RecurrenceRule rule = RecurrenceRule.of(START, weekly(2, Set.of(MONDAY, WEDNESDAY), null, 4));
+
+        assertThat(rule.end()).isEqualTo(date("2026-02-02"));
+        assertThat(between(rule, "2026-01-01", "2026-12-31")).hasSize(4);
+    }
+
+    @Test
+    void countOfDailySeriesEndsOnItsLastOccurrence() {
+        RecurrenceRule rule = RecurrenceRule.of(date("2026-01-05"), new RecurrenceDTO(RecurrenceFrequency.DAILY, 3, null, null, 4));
+
+        assertThat(rule.end()).isEqualTo(date("2026-01-14"));
+        assertThat(between(rule, "2026-01-01", "2026-12-31")).containsExactly(
+                date("2026-01-05"), date("2026-01-08"), date("2026-01-11"), date("2026-01-14"));
+    }
+
+    @Test
+    void seriesWithoutEndIsExpandedFromTheWindowOnly() {
+        RecurrenceRule rule = RecurrenceRule.of(date("2026-01-05"), new RecurrenceDTO(RecurrenceFrequency.DAILY, 3, null, null, null));
+
+        assertThat(rule.end()).isNull();
+        assertThat(between(rule, "2030-03-01", "2030-03-07")).containsExactly(date("2030-03-03"), date("2030-03-06"));
+    }
+
+    @Test
+    void untilEndsTheSeries() {
+        RecurrenceRule rule = RecurrenceRule.of(START, weekly(1, null, date("2026-01-20"), null));
+
+        assertThat(rule.end()).isEqualTo(date("2026-01-20"));
+        assertThat(between(rule, "2026-01-01", "2026-12-31")).containsExactly(date("2026-01-07"), date("2026-01-14"));
+    }
+
+    @Test
+    void rejectsInconsistentRules() {
+        assertThatThrownBy(() -> RecurrenceRule.of(START, weekly(1, null, date("2026-02-01"), 3)))
+                .isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(START, weekly(1, null, date("2026-01-01"), null)))
+                .isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(START, new RecurrenceDTO(RecurrenceFrequency.DAILY, 1, Set.of(MONDAY), null, null)))
+                .isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(null, weekly(1, null, null, null)))
+                .isInstanceOf(CustomException.class);
+    }
+
+    private static RecurrenceDTO weekly(int interval, Set<DayOfWeek> byDay, LocalDate until, Integer count) {
+        return new RecurrenceDTO(RecurrenceFrequency.WEEKLY, interval, byDay, until, count);
+    }
+
+    private static RecurrenceDTO monthly(int interval, LocalDate until, Integer count) {
+        return new RecurrenceDTO(RecurrenceFrequency.MONTHLY, interval, null, until, count);
+    }
+
+    private static List<LocalDate> between(RecurrenceRule rule, String from, String to) {
+        List<LocalDate> occurrences = new ArrayList<>();
+        rule.forEachBetween(date(from), date(to), occurrences::add);
+        return occurrences;
+    }
+
+    private static LocalDate date(String date) {
+        return LocalDate.parse(date);
+    }
+}
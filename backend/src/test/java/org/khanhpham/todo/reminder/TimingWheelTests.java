@@ -0,0 +1,139 @@
+package org.khanhpham.todo.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that timeouts expire exactly at their tick wherever they start in the wheel: in the lowest level,
+ * across the wrap-around of a level, after cascading down from the upper levels, and beyond the span the
+ * wheel covers.
+ */
+class TimingWheelTests {
+    private static final int SLOTS = 64;
+
+    @Test
+    void expiresInDeadlineOrderWithinTheLowestLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("c", 30);
+        wheel.schedule("a", 10);
+        wheel.schedule("b", 20);
+
+        assertThat(advance(wheel, 9)).isEmpty();
+        assertThat(advance(wheel, 30)).containsExactly("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineIsRoundedUpToTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule("reminder", 5_001);
+
+        assertThat(advance(wheel, 5_999)).isEmpty();
+        assertThat(advance(wheel, 6_000)).containsExactly("reminder");
+    }
+
+    @Test
+    void pastDeadlineExpiresOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 1_000);
+        wheel.schedule("late", 400);
+
+        assertThat(advance(wheel, 1_000)).containsExactly("late");
+    }
+
+    @Test
+    void lowestLevelWrapsAroundItsLastSlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 60);
+        wheel.schedule("wrapped", 70);
+
+        assertThat(advance(wheel, 69)).isEmpty();
+        assertThat(advance(wheel, 70)).containsExactly("wrapped");
+    }
+
+    @Test
+    void cascadesFromTheSecondLevelAcrossItsWrapAround() {
+        long start = SLOTS * SLOTS - 96;
+        long deadline = SLOTS * SLOTS + 104;
+        TimingWheel<String> wheel = new TimingWheel<>(1, start);
+        wheel.schedule("cascaded", deadline);
+
+        assertThat(advanceTickByTick(wheel, start, deadline - 1)).isEmpty();
+        assertThat(advance(wheel, deadline)).containsExactly("cascaded");
+    }
+
+    @Test
+    void cascadesThroughEveryLevelWhenAdvancedOneTickAtATime() {
+        long third = 3L * SLOTS * SLOTS + 5;
+        long fourth = 2L * SLOTS * SLOTS * SLOTS + 7L * SLOTS + 11;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("fourth", fourth);
+        wheel.schedule("third", third);
+
+        assertThat(advanceTickByTick(wheel, 0, third - 1)).isEmpty();
+        assertThat(advance(wheel, third)).containsExactly("third");
+        assertThat(advanceTickByTick(wheel, third, fourth - 1)).isEmpty();
+        assertThat(advance(wheel, fourth)).containsExactly("fourth");
+    }
+
+    @Test
+    void cascadesWhenAdvancedInOneJump() {
+        long deadline = 5L * SLOTS * SLOTS + 3L * SLOTS + 1;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("later", deadline + 1);
+        wheel.schedule("due", deadline);
+
+        assertThat(advance(wheel, deadline)).containsExactly("due");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void deadlineBeyondTheWheelIsPlacedAgainUntilItIsDue() {
+        long span = (long) SLOTS * SLOTS * SLOTS * SLOTS;
+        long deadline = span + 3L * SLOTS * SLOTS * SLOTS + 17;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("far", deadline);
+
+        assertThat(advance(wheel, span)).isEmpty();
+        assertThat(advance(wheel, deadline - 1)).isEmpty();
+        assertThat(advance(wheel, deadline)).containsExactly("far");
+    }
+
+    @Test
+    void cancelledTimeoutNeverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", SLOTS * 2 + 3);
+        wheel.schedule("kept", SLOTS * 2 + 3);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(advance(wheel, SLOTS * 3)).containsExactly("kept");
+    }
+
+    @Test
+    void expiredTimeoutCannotBeCancelled() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule("done", 5);
+        advance(wheel, 5);
+
+        assertThat(wheel.cancel(timeout)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    private static List<String> advance(TimingWheel<String> wheel, long nowMillis) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(nowMillis, expired::add);
+        return expired;
+    }
+
+    private static List<String> advanceTickByTick(TimingWheel<String> wheel, long fromMillis, long toMillis) {
+        List<String> expired = new ArrayList<>();
+        for (long now = fromMillis; now <= toMillis; now++) {
+            wheel.advance(now, expired::add);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,176 @@
+package org.khanhpham.todo.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.TaskCursor;
+import org.khanhpham.todo.common.TaskSortOrder;
+import org.khanhpham.todo.entity.Task;
+import org.khanhpham.todo.entity.User;
+import org.khanhpham.todo.payload.request.TaskFilterRequest;
+import org.khanhpham.todo.repository.projection.TaskProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the read queries behind the task endpoints issue a single statement and never hydrate
+ * {@link User} entities.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TaskRepositoryTests {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private Statistics statistics;
+    private Long userId;
+    private List<Long> taskIds;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("reader@example.com");
+        user.setUsername("reader");
+        user.setPassword("secret");
+        userId = entityManager.persistAndFlush(user).getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription("Description " + i);
+            task.setDate(LocalDate.now().plusDays(i));
+            task.setTime(LocalTime.of(9, 0));
+            task.setImportant(i % 2 == 0);
+            task.setCreatedDate(now);
+            task.setUpdatedDate(now);
+            task.setUser(user);
+            entityManager.persist(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        taskIds = taskRepository.findAll().stream().map(Task::getId).toList();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageIsOneStatementWithoutEntities() {
+        List<TaskProjection> page = taskRepository.findTasks(userId, new TaskFilterRequest(), null, 3);
+
+        assertThat(page).hasSize(3).allMatch(task -> task.userId().equals(userId));
+        assertSingleStatementWithoutEntities();
+    }
+
+    @Test
+    void filteredPageAfterCursorIsOneStatementWithoutEntities() {
+        TaskFilterRequest filter = new TaskFilterRequest();
+        filter.setImportant(true);
+        TaskProjection first = taskRepository.findTasks(userId, filter, null, 1).get(0);
+        statistics.clear();
+
+        TaskCursor after = new TaskCursor(TaskSortOrder.DATE_ASC, first.date(), first.time(), first.id());
+        List<TaskProjection> page = taskRepository.findTasks(userId, filter, after, 10);
+
+        assertThat(page).hasSize(2).allMatch(TaskProjection::isImportant);
+        assertSingleStatementWithoutEntities();
+    }
+
+    @Test
+    void cursorPagesVisitEveryTaskOnceInDateTimeAndIdOrder() {
+        // Tasks sharing a date and time are told apart by their ID
+        User user = entityManager.find(User.class, userId);
+        for (int i = 0; i < 4; i++) {
+            Task task = new Task();
+            task.setTitle("Same slot " + i);
+            task.setDescription("Same slot");
+            task.setDate(LocalDate.now().plusDays(1));
+            task.setTime(LocalTime.of(9, 0));
+            task.setUser(user);
+            entityManager.persist(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = taskRepository.findAll().stream()
+                .sorted(Comparator.comparing(Task::getDate).thenComparing(Task::getTime).thenComparing(Task::getId))
+                .map(Task::getId)
+                .toList();
+
+        List<Long> visited = new ArrayList<>();
+        TaskCursor cursor = null;
+        List<TaskProjection> page;
+        do {
+            page = taskRepository.findTasks(userId, new TaskFilterRequest(), cursor, 2);
+            page.forEach(task -> visited.add(task.id()));
+            if (!page.isEmpty()) {
+                TaskProjection last = page.get(page.size() - 1);
+                TaskCursor issued = new TaskCursor(TaskSortOrder.DATE_ASC, last.date(), last.time(), last.id());
+                cursor = TaskCursor.decode(issued.encode(), TaskSortOrder.DATE_ASC);
+            }
+        } while (page.size() == 2);
+
+        assertThat(visited).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void singleTaskIsOneStatementWithoutEntities() {
+        assertThat(taskRepository.findProjectionByIdAndUserId(taskIds.get(0), userId)).isPresent();
+        assertSingleStatementWithoutEntities();
+    }
+
+    @Test
+    void searchResolutionIsOneStatementWithoutEntities() {
+        assertThat(taskRepository.findProjectionsByIdInAndUserId(taskIds, userId)).hasSize(taskIds.size());
+        assertSingleStatementWithoutEntities();
+    }
+
+    @Test
+    void changesAreOneStatementWithoutEntities() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(taskRepository.findChangedBetween(userId, now.minusDays(1), now.plusDays(1))).hasSize(taskIds.size());
+        assertSingleStatementWithoutEntities();
+    }
+
+    @Test
+    void reminderIsClaimedOncePerDueTime() {
+        LocalDate date = LocalDate.now();
+        LocalTime time = LocalTime.of(9, 0);
+        Long taskId = taskRepository.findAll().stream()
+                .filter(task -> task.getDate().equals(date))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+
+        assertThat(taskRepository.claimReminder(taskId, date, time, date.atTime(time))).isEqualTo(1);
+        assertThat(taskRepository.claimReminder(taskId, date, time, date.atTime(time))).isZero();
+        // A reminder scheduled before the task moved no longer matches it
+        assertThat(taskRepository.claimReminder(taskId, date, time.plusHours(1), date.atTime(time.plusHours(1)))).isZero();
+    }
+
+    private void assertSingleStatementWithoutEntities() {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,141 @@
+package org.khanhpham.todo.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks term and prefix matching, ranking, incremental updates and rebuilds of the search index.
+ */
+class TaskSearchIndexTests {
+    private static final Long USER = 1L;
+    private static final Long OTHER_USER = 2L;
+
+    private final TaskSearchIndex index = new TaskSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "maxPrefixExpansions", 50);
+    }
+
+    @Test
+    void matchesTasksContainingEveryTermExactlyOrAsPrefix() {
+        put(10L, "Buy milk", "From the corner store");
+        put(11L, "Buy bread", "Whole grain");
+
+        assertThat(index.search(USER, "buy mil", 10)).containsExactly(10L);
+        assertThat(index.search(USER, "buy", 10)).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(index.search(USER, "buy cheese", 10)).isEmpty();
+    }
+
+    @Test
+    void ignoresCaseAccentsAndPunctuation() {
+        put(10L, "Học tiếng Anh", "Đi thư viện, mượn sách!");
+
+        assertThat(index.search(USER, "HOC", 10)).containsExactly(10L);
+        assertThat(index.search(USER, "di thu-vien", 10)).containsExactly(10L);
+        assertThat(index.search(USER, "   ,,  ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        put(10L, "Weekly meeting", "Prepare the report");
+        put(11L, "Quarterly report", "Numbers from every team");
+
+        assertThat(index.search(USER, "report", 10)).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void ranksExactMatchesAbovePrefixMatches() {
+        put(10L, "Planning session", "");
+        put(11L, "Plan", "");
+
+        assertThat(index.search(USER, "plan", 10)).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void breaksTiesNewestFirstAndAppliesTheLimit() {
+        put(10L, "Call mom", "");
+        put(12L, "Call dad", "");
+        put(11L, "Call bank", "");
+
+        assertThat(index.search(USER, "call", 2)).containsExactly(12L, 11L);
+    }
+
+    @Test
+    void capsTheTermsAPrefixExpandsTo() {
+        ReflectionTestUtils.setField(index, "maxPrefixExpansions", 2);
+        put(10L, "ab1", "");
+        put(11L, "ab2", "");
+        put(12L, "ab3", "");
+
+        assertThat(index.search(USER, "ab", 10)).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(index.search(USER, "ab3", 10)).containsExactly(12L);
+    }
+
+    @Test
+    void updateReplacesTheTermsOfTheTaskAndDeleteRemovesThem() {
+        put(10L, "Draft", "Old notes");
+        put(10L, "Final", "New notes");
+
+        assertThat(index.search(USER, "draft", 10)).isEmpty();
+        assertThat(index.search(USER, "old", 10)).isEmpty();
+        assertThat(index.search(USER, "final notes", 10)).containsExactly(10L);
+
+        index.onTaskChanged(new TaskChangedEvent(TaskChangeType.DELETED, USER, 10L, null, null));
+        assertThat(index.search(USER, "final", 10)).isEmpty();
+    }
+
+    @Test
+    void keepsUsersApart() {
+        put(10L, "Secret plan", "");
+
+        assertThat(index.search(OTHER_USER, "secret", 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeWhileItRuns() {
+        put(10L, "Stale", "");
+
+        index.beginRebuild();
+        index.load(new TaskSearchRow(11L, USER, "Loaded", ""));
+        // Task 12 is renamed and task 13 deleted by requests before their rows are read
+        put(12L, "Renamed", "");
+        index.onTaskChanged(new TaskChangedEvent(TaskChangeType.DELETED, USER, 13L, null, null));
+        index.load(new TaskSearchRow(12L, USER, "Original", ""));
+        index.load(new TaskSearchRow(13L, USER, "Deleted", ""));
+        index.finishRebuild();
+
+        assertThat(index.search(USER, "stale", 10)).isEmpty();
+        assertThat(index.search(USER, "loaded", 10)).containsExactly(11L);
+        assertThat(index.search(USER, "renamed", 10)).containsExactly(12L);
+        assertThat(index.search(USER, "original", 10)).isEmpty();
+        assertThat(index.search(USER, "deleted", 10)).isEmpty();
+    }
+
+    @Test
+    void abortedRebuildKeepsTheCurrentIndex() {
+        put(10L, "Current", "");
+
+        index.beginRebuild();
+        index.load(new TaskSearchRow(11L, USER, "Partial", ""));
+        index.abortRebuild();
+
+        assertThat(index.search(USER, "current", 10)).containsExactly(10L);
+        assertThat(index.search(USER, "partial", 10)).isEmpty();
+    }
+
+    private void put(Long taskId, String title, String description) {
+        TaskDTO task = new TaskDTO();
+        task.setId(taskId);
+        task.setUserId(USER);
+        task.setTitle(title);
+        task.setDescription(description);
+        index.onTaskChanged(new TaskChangedEvent(TaskChangeType.UPDATED, USER, taskId, null, task));
+    }
+}
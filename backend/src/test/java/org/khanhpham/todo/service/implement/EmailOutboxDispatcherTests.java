@@ -0,0 +1,149 @@
+package org.khanhpham.todo.service.implement;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.khanhpham.todo.common.EmailStatus;
+import org.khanhpham.todo.entity.EmailOutbox;
+import org.khanhpham.todo.repository.EmailOutboxRepository;
+import org.khanhpham.todo.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Delivers outbox emails to an in-process SMTP server, which is stopped to make deliveries fail.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "app.mail.outbox.poll-interval-ms=100",
+        "app.mail.outbox.max-attempts=3",
+        "app.mail.outbox.backoff-base-seconds=1",
+        "app.mail.outbox.backoff-max-seconds=4",
+        "app.mail.outbox.lease-seconds=60"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTests {
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void queuedEmailIsDeliveredAndRemoved() throws Exception {
+        emailService.sendEmail("sent@example.com", "Reminder", "Pay the rent");
+
+        assertThat(greenMail.waitForIncomingEmail(TIMEOUT.toMillis(), 1)).isTrue();
+        MimeMessage message = greenMail.getReceivedMessages()[0];
+        assertThat(message.getSubject()).isEqualTo("Reminder");
+        assertThat(message.getFrom()[0].toString()).isEqualTo("noreply@khanhpham.com");
+        assertThat(message.getAllRecipients()[0].toString()).isEqualTo("sent@example.com");
+        await().atMost(TIMEOUT).until(() -> find("sent@example.com").isEmpty());
+    }
+
+    @Test
+    void failedEmailIsRetriedWithGrowingBackoff() {
+        greenMail.stop();
+        emailService.sendEmail("retried@example.com", "Reminder", "Water the plants");
+
+        EmailOutbox first = awaitAttempts("retried@example.com", 1);
+        assertThat(first.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(first.getLastError()).isNotBlank();
+        EmailOutbox second = awaitAttempts("retried@example.com", 2);
+        assertThat(second.getStatus()).isEqualTo(EmailStatus.PENDING);
+        // One second after the first failure, then two after the second
+        assertThat(Duration.between(first.getNextAttemptAt(), second.getNextAttemptAt()))
+                .isGreaterThanOrEqualTo(Duration.ofSeconds(2));
+
+        greenMail.start();
+        assertThat(greenMail.waitForIncomingEmail(TIMEOUT.toMillis(), 1)).isTrue();
+        await().atMost(TIMEOUT).until(() -> find("retried@example.com").isEmpty());
+    }
+
+    @Test
+    void emailBecomesDeadLetterAfterMaxAttempts() {
+        greenMail.stop();
+        emailService.sendEmail("dead@example.com", "Reminder", "Call the bank");
+
+        EmailOutbox dead = await().atMost(TIMEOUT)
+                .until(() -> find("dead@example.com").orElse(null),
+                        email -> email != null && email.getStatus() == EmailStatus.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(dead.getLastError()).isNotBlank();
+    }
+
+    @Test
+    void expiredLeaseCountsAsAttempt() {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(new EmailOutbox(null, "hung@example.com", "Reminder", "Renew the lease",
+                EmailStatus.SENDING, 2, now.minusSeconds(1), null, now.minusMinutes(5)));
+
+        EmailOutbox dead = await().atMost(TIMEOUT)
+                .until(() -> find("hung@example.com").orElse(null),
+                        email -> email != null && email.getStatus() == EmailStatus.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(greenMail.waitForIncomingEmail(500, 1)).isFalse();
+    }
+
+    @Test
+    void failureIsNotRecordedOverANewerClaim() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime firstLease = now.plusMinutes(10);
+        LocalDateTime secondLease = now.plusMinutes(20);
+        Long id = emailOutboxRepository.save(new EmailOutbox(null, "reclaimed@example.com", "Reminder", "Book the room",
+                EmailStatus.SENDING, 1, secondLease, null, now)).getId();
+
+        // The worker holding the first, expired lease reports a failure
+        assertThat(recordFailure(id, firstLease)).isZero();
+        EmailOutbox reclaimed = find("reclaimed@example.com").orElseThrow();
+        assertThat(reclaimed.getStatus()).isEqualTo(EmailStatus.SENDING);
+        assertThat(reclaimed.getAttempts()).isEqualTo(1);
+
+        assertThat(recordFailure(id, secondLease)).isEqualTo(1);
+        EmailOutbox failed = find("reclaimed@example.com").orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+    }
+
+    private int recordFailure(Long id, LocalDateTime leaseUntil) {
+        return transactionTemplate.execute(status -> emailOutboxRepository.recordFailure(id, leaseUntil,
+                EmailStatus.PENDING, 2, "Connection refused", LocalDateTime.now().plusMinutes(30)));
+    }
+
+    private EmailOutbox awaitAttempts(String recipient, int attempts) {
+        return await().atMost(TIMEOUT)
+                .until(() -> find(recipient).orElse(null),
+                        email -> email != null && email.getAttempts() >= attempts && email.getStatus() != EmailStatus.SENDING);
+    }
+
+    private Optional<EmailOutbox> find(String recipient) {
+        return emailOutboxRepository.findAll().stream()
+                .filter(email -> email.getRecipient().equals(recipient))
+                .findFirst();
+    }
+}
@@ -0,0 +1,160 @@
+package org.khanhpham.todo.tag;
+
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.common.TaskChangeType;
+import org.khanhpham.todo.event.TaskChangedEvent;
+import org.khanhpham.todo.payload.dto.TaskDTO;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks tag queries against the bitmaps, that task ordinals are reused without leaking the tags or flags
+ * of the removed task, and that a rebuild keeps the changes made while it runs.
+ */
+class TaskTagIndexTests {
+    private static final Long USER = 1L;
+    private static final Long OTHER_USER = 2L;
+
+    private final TaskTagIndex index = new TaskTagIndex();
+
+    @Test
+    void requiresEveryTagOfAll() {
+        put(10L, false, false, "work", "urgent");
+        put(11L, false, false, "work");
+        put(12L, false, false, "urgent");
+
+        assertThat(query(Set.of("work", "urgent"), Set.of(), Set.of(), null, null).ids()).containsExactly(10L);
+        assertThat(query(Set.of("work", "missing"), Set.of(), Set.of(), null, null).total()).isZero();
+    }
+
+    @Test
+    void combinesAnyAndNoneWithAll() {
+        put(10L, false, false, "work", "email");
+        put(11L, false, false, "work", "call");
+        put(12L, false, false, "work", "call", "later");
+        put(13L, false, false, "home", "call");
+
+        TaskTagMatch match = query(Set.of("work"), Set.of("email", "call"), Set.of("later"), null, null);
+
+        assertThat(match.total()).isEqualTo(2L);
+        assertThat(match.ids()).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void filtersOnFlagsWithOrWithoutTags() {
+        put(10L, true, true, "work");
+        put(11L, false, true, "work");
+        put(12L, true, false);
+
+        assertThat(query(Set.of(), Set.of(), Set.of(), true, null).ids()).containsExactly(12L, 10L);
+        assertThat(query(Set.of("work"), Set.of(), Set.of(), false, true).ids()).containsExactly(11L);
+        assertThat(query(Set.of(), Set.of(), Set.of(), null, null).total()).isEqualTo(3L);
+    }
+
+    @Test
+    void returnsTheNewestIdsUpToTheLimitWithTheFullCount() {
+        for (long id = 100; id < 150; id++) {
+            put(id, false, false, "bulk");
+        }
+
+        TaskTagMatch match = index.query(USER, Set.of("bulk"), Set.of(), Set.of(), null, null, 3);
+
+        assertThat(match.total()).isEqualTo(50L);
+        assertThat(match.ids()).containsExactly(149L, 148L, 147L);
+    }
+
+    @Test
+    void normalizesTagNamesOfQueries() {
+        put(10L, false, false, "work");
+
+        assertThat(query(Set.of("  WORK "), Set.of(), Set.of(), null, null).ids()).containsExactly(10L);
+    }
+
+    @Test
+    void updateWithoutTagsKeepsThemAndWithEmptyTagsClearsThem() {
+        put(10L, false, false, "work");
+
+        index.onTaskChanged(changed(TaskChangeType.STATUS_CHANGED, 10L, task(10L, true, false, null)));
+        assertThat(query(Set.of("work"), Set.of(), Set.of(), true, null).ids()).containsExactly(10L);
+
+        put(10L, true, false);
+        assertThat(query(Set.of("work"), Set.of(), Set.of(), null, null).total()).isZero();
+        assertThat(index.counts(USER)).isEmpty();
+    }
+
+    @Test
+    void reusedOrdinalDoesNotInheritTagsOrFlagsOfTheRemovedTask() {
+        put(10L, true, true, "work");
+        put(11L, false, false, "home");
+        index.onTaskChanged(changed(TaskChangeType.DELETED, 10L, null));
+
+        put(12L, false, false, "home");
+
+        assertThat(query(Set.of("work"), Set.of(), Set.of(), null, null).total()).isZero();
+        assertThat(query(Set.of(), Set.of(), Set.of(), true, null).total()).isZero();
+        assertThat(query(Set.of(), Set.of(), Set.of(), null, true).total()).isZero();
+        assertThat(query(Set.of("home"), Set.of(), Set.of(), null, null).ids()).containsExactly(12L, 11L);
+        assertThat(index.counts(USER)).isEqualTo(Map.of("home", 2L));
+    }
+
+    @Test
+    void keepsUsersApart() {
+        put(10L, false, false, "work");
+
+        assertThat(index.query(OTHER_USER, Set.of("work"), Set.of(), Set.of(), null, null, 10).total()).isZero();
+        assertThat(index.counts(OTHER_USER)).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeWhileItRuns() {
+        put(10L, false, false, "stale");
+
+        index.beginRebuild();
+        index.loadTask(new TaskFlagRow(10L, USER, false, false));
+        index.loadTask(new TaskFlagRow(11L, USER, false, false));
+        // Task 11 is changed by a request after its row was read
+        put(11L, true, false, "fresh");
+        index.loadTag(new TaskTagRow(10L, USER, "loaded"));
+        index.loadTag(new TaskTagRow(11L, USER, "old"));
+        index.finishRebuild();
+
+        assertThat(index.counts(USER)).isEqualTo(Map.of("loaded", 1L, "fresh", 1L));
+        assertThat(query(Set.of("fresh"), Set.of(), Set.of(), true, null).ids()).containsExactly(11L);
+    }
+
+    @Test
+    void abortedRebuildKeepsTheCurrentIndex() {
+        put(10L, false, false, "work");
+
+        index.beginRebuild();
+        index.loadTask(new TaskFlagRow(20L, USER, false, false));
+        index.abortRebuild();
+
+        assertThat(query(Set.of(), Set.of(), Set.of(), null, null).ids()).containsExactly(10L);
+    }
+
+    private void put(Long taskId, boolean completed, boolean important, String... tags) {
+        index.onTaskChanged(changed(TaskChangeType.UPDATED, taskId, task(taskId, completed, important, Set.of(tags))));
+    }
+
+    private TaskTagMatch query(Set<String> all, Set<String> any, Set<String> none, Boolean completed, Boolean important) {
+        return index.query(USER, all, any, none, completed, important, 10);
+    }
+
+    private static TaskChangedEvent changed(TaskChangeType type, Long taskId, TaskDTO after) {
+        return new TaskChangedEvent(type, USER, taskId, null, after);
+    }
+
+    private static TaskDTO task(Long taskId, boolean completed, boolean important, Set<String> tags) {
+        TaskDTO task = new TaskDTO();
+        task.setId(taskId);
+        task.setUserId(USER);
+        task.setCompleted(completed);
+        task.setImportant(important);
+        task.setTags(tags);
+        return task;
+    }
+}
@@ -0,0 +1,92 @@
+package org.khanhpham.todo.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.khanhpham.todo.exception.CustomException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the RFC 4180 cases the importer relies on: quoted separators, line breaks and quotes, both line
+ * endings, a leading byte order mark, and the errors for malformed input.
+ */
+class CsvReaderTests {
+    private static final String BOM = "\uFEFF";
+
+    @Test
+    void readsPlainRecordsWithEitherLineEnding() throws IOException {
+        assertThat(records("title,date\r\nWrite,2026-01-05\nRead,2026-01-06")).containsExactly(
+                List.of("title", "date"), List.of("Write", "2026-01-05"), List.of("Read", "2026-01-06"));
+    }
+
+    @Test
+    void trailingLineBreakDoesNotAddARecord() throws IOException {
+        assertThat(records("a,b\r\n")).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertThat(records(",x,\n\"\",\n")).containsExactly(List.of("", "x", ""), List.of("", ""));
+    }
+
+    @Test
+    void quotedFieldKeepsSeparatorsAndLineBreaks() throws IOException {
+        assertThat(records("\"Buy milk, eggs\",\"first line\r\nsecond line\nthird\"\nnext,record")).containsExactly(
+                List.of("Buy milk, eggs", "first line\r\nsecond line\nthird"), List.of("next", "record"));
+    }
+
+    @Test
+    void doubledQuoteInQuotedFieldIsOneQuote() throws IOException {
+        assertThat(records("\"Say \"\"hi\"\"\",\"\"\"\"")).containsExactly(List.of("Say \"hi\"", "\""));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsKept() throws IOException {
+        assertThat(records("5\" screen,x")).containsExactly(List.of("5\" screen", "x"));
+    }
+
+    @Test
+    void skipsByteOrderMarkOnlyAtTheStartOfTheInput() throws IOException {
+        assertThat(records(BOM + "title,date\n" + BOM + "x,y")).containsExactly(
+                List.of("title", "date"), List.of(BOM + "x", "y"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertThat(records("")).isEmpty();
+        assertThat(records(BOM)).isEmpty();
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() {
+        assertThatThrownBy(() -> records("a,\"never closed\nb,c"))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("Unterminated");
+    }
+
+    @Test
+    void rejectsFieldLongerThanTheLimit() throws IOException {
+        String tooLong = "x".repeat(CsvReader.MAX_FIELD_LENGTH + 1);
+
+        assertThatThrownBy(() -> records("\"" + tooLong + "\""))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining(String.valueOf(CsvReader.MAX_FIELD_LENGTH));
+        assertThat(records("x".repeat(CsvReader.MAX_FIELD_LENGTH)).get(0).get(0)).hasSize(CsvReader.MAX_FIELD_LENGTH);
+    }
+
+    private static List<List<String>> records(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
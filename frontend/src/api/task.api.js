@@ -22,20 +22,41 @@ export const deleteTask = async (id) => {
     }
 };
 
+// Pages are {tasks, next}; follow the cursor until the last page and return every task
+const getAllPages = async (url, params = {}) => {
+    const tasks = [];
+    let cursor;
+    do {
+        const page = await httpRequest.get(url, { params: { ...params, cursor } });
+        tasks.push(...page.tasks);
+        cursor = page.next;
+    } while (cursor);
+    return tasks;
+};
+
 export const getAllTask = async () => {
     try {
-        const response = await httpRequest.get("/tasks");
-        return response;
+        return await getAllPages("/tasks");
     } catch (error) {
         console.error('API error getting all tasks:', error);
         throw error;
     }
 };
 
+// Every criterion is optional: completed, important, dateFrom, dateTo (yyyy-MM-dd), timeFrom, timeTo (HH:mm),
+// title (prefix) and sort (DATE_ASC or DATE_DESC)
+export const getFilteredTask = async (filter) => {
+    try {
+        return await getAllPages("/tasks/filter", filter);
+    } catch (error) {
+        console.error('Error getting filtered tasks:', error);
+        throw error;
+    }
+};
+
 export const getCompletedTask = async () => {
     try {
-        const response = await httpRequest.get(`/tasks/completed`);
-        return response.data;
+        return await getAllPages("/tasks/filter", { completed: true });
     } catch (error) {
         console.error('Error getting completed tasks:', error);
         throw error;
@@ -44,8 +65,7 @@ export const getCompletedTask = async () => {
 
 export const getImportantTask = async () => {
     try {
-        const response = await httpRequest.get(`/tasks/important`);
-        return response.data;
+        return await getAllPages("/tasks/filter", { important: true });
     } catch (error) {
         console.error('Error getting important tasks:', error);
         throw error;